@@ -4,7 +4,6 @@ import com.github.kusoroadeolu.vicutils.concurrent.actors.exceptions.ChildDeathE
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Function;
 
@@ -65,11 +64,10 @@ public abstract class AbstractActor<T extends Message> implements ActorRef<T>, A
                     Thread.currentThread().setName(this.address);
                     try {
                         while (!this.isTerminated) {
-                            final Optional<T> opt = this.mailbox.receive();
+                            final T val = this.mailbox.receiveOrNull();
                             Behaviour<T> nextBehaviour;
-                            if (opt.isEmpty()) return;
+                            if (val == null) return;
 
-                            T val = opt.get();
                             if (this.behaviour instanceof Behaviour.Sink<T>)
                                 continue; //If the behaviour is already a sink fk it
 
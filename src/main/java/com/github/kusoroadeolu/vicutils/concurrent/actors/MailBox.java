@@ -1,15 +1,16 @@
 package com.github.kusoroadeolu.vicutils.concurrent.actors;
 
-import com.github.kusoroadeolu.vicutils.concurrent.channels.BufferedChannel;
 import com.github.kusoroadeolu.vicutils.concurrent.channels.Channel;
 
 import java.util.Optional;
 
+// An actor's mailbox, anyone can tell an actor but only its own thread receives, so it sits on an mpsc queue
+// It's unbounded, a tell is never rejected, so a sender is never blocked on a busy actor
 public class MailBox<T>{
     private final Channel<T> mailBox;
 
     public MailBox() {
-        this.mailBox = new BufferedChannel<>(Short.MAX_VALUE);
+        this.mailBox = Channel.mpsc();
         this.mailBox.make();
     }
 
@@ -17,6 +18,11 @@ public class MailBox<T>{
         return this.mailBox.receive();
     }
 
+    //Null once the mailbox is closed and drained, doesn't wrap every message like receive
+    public T receiveOrNull() {
+        return this.mailBox.receiveOrNull();
+    }
+
     public boolean send(T message) {
         return this.mailBox.trySend(message);
     }
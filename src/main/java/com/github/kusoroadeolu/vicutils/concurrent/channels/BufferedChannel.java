@@ -2,6 +2,7 @@ package com.github.kusoroadeolu.vicutils.concurrent.channels;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.ArrayBlockingQueue;
 
@@ -35,4 +36,54 @@ public class BufferedChannel<T> extends UnBufferedChannel<T> {
             this.channelLock.unlock();
         }
     }
+
+    //Waits at most @nanos for room, once the value's buffered it's sent, no hand off to wait for
+    boolean timedSend(T val, long nanos) throws InterruptedException {
+        requireNonNull(val);
+        this.verifyIfNil();
+        this.verifyIfClosed();
+        this.channelLock.lockInterruptibly();
+        try {
+            this.verifyIfClosed();
+            while (this.isFull() || this.isNil()) {
+                this.verifyIfClosed();
+                if (nanos <= 0) return false;
+                nanos = this.canSend.awaitNanos(nanos);
+            }
+
+            this.buf.add(val);
+            this.canReceive.signal();
+            return true;
+        } finally {
+            this.channelLock.unlock();
+        }
+    }
+
+    //Fills the buffer as far as it goes under one lock, receivers are woken once per fill rather than once per value
+    public void sendAll(Collection<? extends T> vals){
+        Object[] arr = requireNoNulls(vals);
+        this.verifyIfNil();
+        this.verifyIfClosed();
+        this.channelLock.lock();
+        int added = 0; //Since receivers were last woken
+        try {
+            this.verifyIfClosed();
+            for (Object val : arr) {
+                while (this.isFull() || this.isNil()) {
+                    this.verifyIfClosed();
+                    if (added > 0) this.canReceive.signalAll(); //Wake them before parking, else they'd never make room
+                    added = 0;
+                    this.canSend.await();
+                }
+
+                this.buf.add(this.cast(val));
+                added++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (added > 0) this.canReceive.signalAll(); //Also when closed part way, receivers drain what was sent
+            this.channelLock.unlock();
+        }
+    }
 }
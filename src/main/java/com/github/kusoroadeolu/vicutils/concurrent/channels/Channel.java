@@ -3,4 +3,27 @@ package com.github.kusoroadeolu.vicutils.concurrent.channels;
 public interface Channel<T> extends ReceiveChannel<T>, SendChannel<T>{
     SendChannel<T> makeSendChannel();
     ReceiveChannel<T> makeReceiveChannel();
+
+    //Buffered channels on a lock free ring, @capacity is rounded up to a power of two, at least 2 for mpsc and mpmc. Each is made NIL, like every other channel
+    //Pick the narrowest one that fits, sending or receiving from more threads than a channel is built for corrupts it
+
+    //One sending thread, one receiving thread
+    static <T> Channel<T> spsc(int capacity){
+        return new SpscChannel<>(capacity);
+    }
+
+    //Any number of sending threads, one receiving thread
+    static <T> Channel<T> mpsc(int capacity){
+        return new MpscChannel<>(capacity);
+    }
+
+    //Any number of sending threads, one receiving thread, never full. Sends allocate a node each, so prefer a bounded mpsc where a bound fits
+    static <T> Channel<T> mpsc(){
+        return new LinkedMpscChannel<>();
+    }
+
+    //Any number of sending and receiving threads
+    static <T> Channel<T> mpmc(int capacity){
+        return new MpmcChannel<>(capacity);
+    }
 }
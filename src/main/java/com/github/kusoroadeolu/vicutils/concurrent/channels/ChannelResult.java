@@ -0,0 +1,17 @@
+package com.github.kusoroadeolu.vicutils.concurrent.channels;
+
+// The outcome of a non blocking or timed receive, so a consumer can tell an empty channel from a finished one without an Optional per value
+public enum ChannelResult {
+    RECEIVED,
+    EMPTY, //Nothing to take right now, also returned while the channel is nil
+    TIMED_OUT, //Nothing arrived before the timeout
+    CLOSED; //Closed and drained, nothing will ever arrive
+
+    public boolean isReceived(){
+        return this == RECEIVED;
+    }
+
+    public boolean isClosed(){
+        return this == CLOSED;
+    }
+}
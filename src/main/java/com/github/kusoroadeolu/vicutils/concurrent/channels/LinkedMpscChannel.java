@@ -0,0 +1,68 @@
+package com.github.kusoroadeolu.vicutils.concurrent.channels;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// An unbounded channel for any number of senders and exactly one receiving thread, e.g. an actor's mailbox
+// A linked queue rather than a ring, a send never fails or parks, it swaps itself in as the new tail and links the old one to it
+/*Invariants
+* @head is a consumed node, or the initial stub, the next value is @head.next. Only the receiver moves @head, a second receiver corrupts the queue
+* A sender swaps @tail first and links prev.next after, so between the two a receiver sees prev.next as null and treats the queue as empty, same as an unpublished slot in MpscChannel
+* Publishing is the volatile write of prev.next, so it's ordered before the sender reads the waiting receivers, see RingChannel
+* */
+public class LinkedMpscChannel<T> extends RingChannel<T> {
+    private final AtomicReference<Node<T>> tail;
+    private volatile Node<T> head; //Volatile only for size, the receiver is the only writer
+
+    public LinkedMpscChannel() {
+        super(Integer.MAX_VALUE);
+        Node<T> stub = new Node<>(null);
+        this.head = stub;
+        this.tail = new AtomicReference<>(stub);
+    }
+
+    boolean offer(T val){
+        Node<T> node = new Node<>(val);
+        this.tail.getAndSet(node).next = node;
+        return true;
+    }
+
+    //Links the batch up first, so the whole run is published with one swap and one link
+    int offerAll(Object[] vals, int off, int len){
+        if (len == 0) return 0;
+        Node<T> first = new Node<>(this.cast(vals[off]));
+        Node<T> last = first;
+        for (int i = 1; i < len; i++) {
+            Node<T> node = new Node<>(this.cast(vals[off + i]));
+            last.next = node;
+            last = node;
+        }
+
+        this.tail.getAndSet(last).next = first;
+        return len;
+    }
+
+    T poll(){
+        Node<T> next = this.head.next;
+        if (next == null) return null; //Empty, or the sender that swapped the tail hasn't linked yet
+        T val = next.val;
+        next.val = null; //next is the new stub, don't hold on to what it carried
+        this.head = next;
+        return val;
+    }
+
+    //Walks the queue, so it's O(n), weakly consistent like the rings
+    int size(){
+        int size = 0;
+        for (Node<T> node = this.head.next; node != null && size < Integer.MAX_VALUE; node = node.next) size++;
+        return size;
+    }
+
+    private static final class Node<T> {
+        T val;
+        volatile Node<T> next;
+
+        Node(T val) {
+            this.val = val;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.kusoroadeolu.vicutils.concurrent.channels;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// A buffered channel for any number of senders and receivers on Vyukov's bounded MPMC array queue, senders and receivers only park when it's full or empty
+/*Invariants
+* Each slot has a sequence, a slot whose sequence is pos is free for the sender that claims pos, one whose sequence is pos + 1 holds the value for the receiver that claims pos
+* Senders claim a pos by CASing @tail, receivers by CASing @head, so senders only contend with senders and receivers with receivers
+* A receiver frees its slot by setting its sequence to pos + ring size, the pos the sender one lap later will claim it with
+* The capacity is rounded up to a power of two, and at least 2, so slots are found with a mask
+* */
+public class MpmcChannel<T> extends RingChannel<T> {
+    private final AtomicReferenceArray<T> values;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final PaddedAtomicLong head;
+    private final PaddedAtomicLong tail;
+
+    public MpmcChannel(int capacity) {
+        super(Math.max(2, ringSize(capacity))); //With one slot, a free slot and a full one would have the same sequence
+        this.values = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) this.sequences.set(i, i);
+        this.mask = this.capacity - 1;
+        this.head = new PaddedAtomicLong(0);
+        this.tail = new PaddedAtomicLong(0);
+    }
+
+    boolean offer(T val){
+        long pos = this.tail.get();
+        while (true) {
+            int idx = (int) pos & this.mask;
+            long dif = this.sequences.getAcquire(idx) - pos;
+            if (dif == 0) {
+                if (this.tail.weakCompareAndSetVolatile(pos, pos + 1)) {
+                    this.values.setPlain(idx, val);
+                    this.sequences.set(idx, pos + 1); //Volatile, not release, it has to be ordered before reading the waiting receivers, see RingChannel
+                    return true;
+                }
+                pos = this.tail.get();
+            } else if (dif < 0) return false; //The slot still holds last lap's value, full
+            else pos = this.tail.get(); //Another sender claimed pos, catch up
+        }
+    }
+
+    T poll(){
+        long pos = this.head.get();
+        while (true) {
+            int idx = (int) pos & this.mask;
+            long dif = this.sequences.getAcquire(idx) - (pos + 1);
+            if (dif == 0) {
+                if (this.head.weakCompareAndSetVolatile(pos, pos + 1)) {
+                    T val = this.values.getPlain(idx);
+                    this.values.setPlain(idx, null);
+                    this.sequences.set(idx, pos + this.capacity);
+                    return val;
+                }
+                pos = this.head.get();
+            } else if (dif < 0) return null; //Nothing sent into pos yet, empty
+            else pos = this.head.get();
+        }
+    }
+
+    int size(){
+        long size = this.tail.get() - this.head.get();
+        return (int) Math.max(0, Math.min(size, this.capacity));
+    }
+}
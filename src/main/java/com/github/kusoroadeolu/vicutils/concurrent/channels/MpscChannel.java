@@ -0,0 +1,61 @@
+package com.github.kusoroadeolu.vicutils.concurrent.channels;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// A buffered channel for any number of senders and exactly one receiving thread, e.g. an actor's mailbox
+// Senders claim slots the same way as MpmcChannel, the receiver owns @head outright so it never CASes or locks unless it has to park
+/*Invariants
+* Slot sequences work as in MpmcChannel, the receiver reads the slot's sequence to see whether the sender that claimed it has published yet
+* Only the receiver writes @head, a second receiver corrupts the ring
+* */
+public class MpscChannel<T> extends RingChannel<T> {
+    private final AtomicReferenceArray<T> values;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final PaddedAtomicLong head;
+    private final PaddedAtomicLong tail;
+
+    public MpscChannel(int capacity) {
+        super(Math.max(2, ringSize(capacity))); //With one slot, a free slot and a full one would have the same sequence
+        this.values = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) this.sequences.set(i, i);
+        this.mask = this.capacity - 1;
+        this.head = new PaddedAtomicLong(0);
+        this.tail = new PaddedAtomicLong(0);
+    }
+
+    boolean offer(T val){
+        long pos = this.tail.get();
+        while (true) {
+            int idx = (int) pos & this.mask;
+            long dif = this.sequences.getAcquire(idx) - pos;
+            if (dif == 0) {
+                if (this.tail.weakCompareAndSetVolatile(pos, pos + 1)) {
+                    this.values.setPlain(idx, val);
+                    this.sequences.set(idx, pos + 1);
+                    return true;
+                }
+                pos = this.tail.get();
+            } else if (dif < 0) return false;
+            else pos = this.tail.get();
+        }
+    }
+
+    T poll(){
+        long pos = this.head.getPlain();
+        int idx = (int) pos & this.mask;
+        if (this.sequences.getAcquire(idx) != pos + 1) return null; //Empty, or the sender that claimed pos hasn't published yet
+        T val = this.values.getPlain(idx);
+        this.values.setPlain(idx, null);
+        this.head.setRelease(pos + 1); //Senders never read it, only size does
+        this.sequences.set(idx, pos + this.capacity); //Volatile, it's ordered before reading the waiting senders, see RingChannel
+        return val;
+    }
+
+    int size(){
+        long size = this.tail.get() - this.head.get();
+        return (int) Math.max(0, Math.min(size, this.capacity));
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.kusoroadeolu.vicutils.concurrent.channels;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//An AtomicLong padded out past a cache line, so a ring's head and tail counters never share a line and writers of one don't invalidate readers of the other
+//Subclass fields are laid out after the parent's, so the padding sits between this value and whatever is allocated next
+@SuppressWarnings({"unused", "serial"}) //The padding is never read, and a ring's counter is never serialized
+class PaddedAtomicLong extends AtomicLong {
+    long cache; //For rings with one owner per side, the owner's last read of the other side's counter, so it sits on the owner's line
+    private long p1, p2, p3, p4, p5, p6;
+
+    PaddedAtomicLong(long initialValue) {
+        super(initialValue);
+    }
+}
@@ -1,9 +1,34 @@
 package com.github.kusoroadeolu.vicutils.concurrent.channels;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ReceiveChannel<T> extends UniDirectionalChannel<T> {
     Optional<T> receive();
     Optional<T> tryReceive();
 
+    //The same as receive and tryReceive without wrapping the value, for consumers that can't afford an Optional per value
+    //receiveOrNull only returns null once the channel is closed and drained, tryReceiveOrNull returns null whenever there's nothing to take
+    T receiveOrNull();
+    T tryReceiveOrNull();
+
+    //Hands the value to @action if there's one to take, never blocks. Tells an empty channel from a closed and drained one
+    ChannelResult tryReceive(Consumer<? super T> action);
+
+    //Waits at most @timeout for a value and hands it to @action. RECEIVED, CLOSED once the channel is closed and drained, or TIMED_OUT
+    ChannelResult receive(Duration timeout, Consumer<? super T> action) throws InterruptedException;
+
+    //receive, but gives up with an InterruptedException if the thread's interrupted while it waits
+    Optional<T> receiveInterruptibly() throws InterruptedException;
+
+    //Blocks like receive until there's at least one value, then takes up to @max values in one go, oldest first
+    //Returns an empty list once the channel is closed and drained
+    List<T> receiveBatch(int max);
+
+    //Moves up to @max values into @dst, oldest first, never blocks. Returns how many were moved
+    int drainTo(Collection<? super T> dst, int max);
+
 }
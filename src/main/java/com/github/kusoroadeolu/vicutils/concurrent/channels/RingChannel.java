@@ -0,0 +1,386 @@
+package com.github.kusoroadeolu.vicutils.concurrent.channels;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+// The lifecycle and blocking shared by the channels built on an array ring, subclasses only provide a non blocking offer and poll
+// Lifecycle NIL -> OPEN -> CLOSED, same as UnBufferedChannel
+/*Invariants
+* A send or receive that doesn't have to wait never takes @channelLock, it's only the slow path for parking on a full or empty ring
+* A waiter counts itself in @waitingSenders or @waitingReceivers, then retries under the lock before awaiting. Whoever offers or polls reads the count after its offer or poll
+* and only locks to signal if someone's waiting. Both sides' write then read are volatile, so either the waiter's retry sees the value or the other side sees the waiter
+* Close wakes every waiter, senders then throw and receivers drain what's left before returning empty
+* */
+abstract class RingChannel<T> implements Channel<T> {
+    final Lock channelLock;
+    final Condition canSend; //Check if a thread can send
+    final Condition canReceive; //Check if a thread can receive
+    final AtomicInteger waitingSenders;
+    final AtomicInteger waitingReceivers;
+    final int capacity;
+    volatile UnBufferedChannel.State channelState;
+    private final static String CHANNEL_CLOSED_MESSAGE = "Channel is already closed";
+    private final static String CHANNEL_NIL_MESSAGE = "Channel is nil";
+
+    RingChannel(int capacity) {
+        this.capacity = capacity;
+        this.channelLock = new ReentrantLock(false);
+        this.canSend = this.channelLock.newCondition();
+        this.canReceive = this.channelLock.newCondition();
+        this.waitingSenders = new AtomicInteger();
+        this.waitingReceivers = new AtomicInteger();
+        this.channelState = UnBufferedChannel.State.NIL;
+    }
+
+    //Adds @val if the ring isn't full, never blocks
+    abstract boolean offer(T val);
+
+    //Takes the oldest value, or null if the ring is empty, never blocks
+    abstract T poll();
+
+    //Weakly consistent
+    abstract int size();
+
+    //Offers vals[off, off + len) in order until the ring is full, never blocks. Returns how many were added
+    //Subclasses that can publish a run of values at once override this
+    int offerAll(Object[] vals, int off, int len){
+        int n = 0;
+        while (n < len && this.offer(this.cast(vals[off + n]))) n++;
+        return n;
+    }
+
+    //Polls up to @max values into @dst, never blocks. Returns how many were moved
+    int pollAll(Collection<? super T> dst, int max){
+        int n = 0;
+        T val;
+        while (n < max && (val = this.poll()) != null) {
+            dst.add(val);
+            n++;
+        }
+
+        return n;
+    }
+
+    public void make(){
+        verifyIfClosed();
+        if(this.isNil()) this.channelState = UnBufferedChannel.State.OPEN;
+    }
+
+    public SendChannel<T> makeSendChannel(){
+        this.make();
+        return this;
+    }
+
+    public ReceiveChannel<T> makeReceiveChannel(){
+        this.make();
+        return this;
+    }
+
+    public void send(T val){
+        requireNonNull(val);
+        this.verifyIfNil();
+        this.verifyIfClosed();
+        if (!this.offer(val)) this.awaitSend(val);
+        this.signalReceivers();
+    }
+
+    public boolean trySend(T val){
+        requireNonNull(val);
+        this.verifyIfNil();
+        this.verifyIfClosed();
+        if (!this.offer(val)) return false;
+        this.signalReceivers();
+        return true;
+    }
+
+    public void sendAll(Collection<? extends T> vals){
+        Object[] arr = UnBufferedChannel.requireNoNulls(vals);
+        this.verifyIfNil();
+        this.verifyIfClosed();
+        int i = 0;
+        while (i < arr.length) {
+            i += this.offerAll(arr, i, arr.length - i);
+            if (i == arr.length) break;
+            this.signalAllReceivers(); //Full, wake receivers for what's in before parking
+            this.awaitSend(this.cast(arr[i++]));
+        }
+
+        this.signalAllReceivers();
+    }
+
+    public boolean send(T val, Duration timeout) throws InterruptedException {
+        return this.timedSend(val, UnBufferedChannel.nanos(timeout));
+    }
+
+    public void sendInterruptibly(T val) throws InterruptedException {
+        this.timedSend(val, Long.MAX_VALUE);
+    }
+
+    public Optional<T> receive(){
+        return Optional.ofNullable(this.receiveOrNull());
+    }
+
+    public Optional<T> tryReceive(){
+        return Optional.ofNullable(this.tryReceiveOrNull());
+    }
+
+    public T receiveOrNull(){
+        T val = this.poll();
+        if (val == null) val = this.awaitReceive();
+        if (val == null) return null; //Closed and drained
+        this.signalSenders();
+        return val;
+    }
+
+    public T tryReceiveOrNull(){
+        if (this.isNil()) return null;
+        T val = this.poll();
+        if (val == null) return null;
+        this.signalSenders();
+        return val;
+    }
+
+    public ChannelResult tryReceive(Consumer<? super T> action){
+        requireNonNull(action);
+        boolean closed = this.isClosed(); //Read before polling, a closed channel that still came up empty is drained
+        return UnBufferedChannel.accept(this.tryReceiveOrNull(), closed, action);
+    }
+
+    public ChannelResult receive(Duration timeout, Consumer<? super T> action) throws InterruptedException {
+        requireNonNull(action);
+        Object val = this.timedTake(UnBufferedChannel.nanos(timeout));
+        if (val == UnBufferedChannel.TIMED_OUT) return ChannelResult.TIMED_OUT;
+        return UnBufferedChannel.accept(this.cast(val), true, action);
+    }
+
+    public Optional<T> receiveInterruptibly() throws InterruptedException {
+        return Optional.ofNullable(this.cast(this.timedTake(Long.MAX_VALUE)));
+    }
+
+    public List<T> receiveBatch(int max){
+        UnBufferedChannel.requireMax(max);
+        List<T> batch = new ArrayList<>();
+        if (max == 0 || this.drainTo(batch, max) > 0) return batch;
+        T val = this.awaitReceive();
+        if (val == null) return batch; //Closed and drained
+        batch.add(val);
+        this.pollAll(batch, max - 1);
+        this.signalAllSenders();
+        return batch;
+    }
+
+    public int drainTo(Collection<? super T> dst, int max){
+        requireNonNull(dst);
+        UnBufferedChannel.requireMax(max);
+        if (this.isNil()) return 0;
+        int n = this.pollAll(dst, max);
+        if (n > 0) this.signalAllSenders();
+        return n;
+    }
+
+    //The total cap of the buffer
+    public int capacity(){
+        if (this.isNil()) return 0; //If the channel is nil return 0
+        else return this.capacity;
+    }
+
+    //Number of T in the buffer
+    //Weakly consistent
+    public int length(){
+        return this.size();
+    }
+
+    public boolean ok(){
+        return !this.isClosed() && !this.isNil();
+    }
+
+    public void close(){
+        this.verifyIfNil();
+        this.verifyIfClosed();
+        this.channelState = UnBufferedChannel.State.CLOSED;
+        this.channelLock.lock();
+        try {
+            this.canSend.signalAll();
+            this.canReceive.signalAll();
+        }finally {
+            this.channelLock.unlock();
+        }
+    }
+
+    //Weakly consistent
+    public boolean isEmpty(){
+        return this.size() == 0;
+    }
+
+
+    //Helpers
+
+    //Slow path of send, parks until there's room or the channel closes
+    void awaitSend(T val){
+        this.channelLock.lock();
+        this.waitingSenders.incrementAndGet();
+        try {
+            while (true) {
+                this.verifyIfClosed();
+                if (this.offer(val)) return;
+                this.canSend.awaitUninterruptibly();
+            }
+        }finally {
+            this.waitingSenders.decrementAndGet();
+            this.channelLock.unlock();
+        }
+    }
+
+    //Slow path of receive, parks until there's a value, or returns null once the channel is closed and drained
+    T awaitReceive(){
+        this.channelLock.lock();
+        this.waitingReceivers.incrementAndGet();
+        try {
+            while (true) {
+                T val = this.poll();
+                if (val != null) return val;
+                if (this.isClosed()) return null;
+                this.canReceive.awaitUninterruptibly(); //Also parks while the channel is nil, same as UnBufferedChannel
+            }
+        }finally {
+            this.waitingReceivers.decrementAndGet();
+            this.channelLock.unlock();
+        }
+    }
+
+    //The timed and interruptible send, returns false if there was no room within @nanos
+    boolean timedSend(T val, long nanos) throws InterruptedException {
+        requireNonNull(val);
+        this.verifyIfNil();
+        this.verifyIfClosed();
+        if (!this.offer(val) && !this.awaitSend(val, nanos)) return false;
+        this.signalReceivers();
+        return true;
+    }
+
+    boolean awaitSend(T val, long nanos) throws InterruptedException {
+        this.channelLock.lockInterruptibly();
+        this.waitingSenders.incrementAndGet();
+        try {
+            while (true) {
+                this.verifyIfClosed();
+                if (this.offer(val)) return true;
+                if (nanos <= 0) return false;
+                nanos = this.canSend.awaitNanos(nanos);
+            }
+        }finally {
+            this.waitingSenders.decrementAndGet();
+            this.channelLock.unlock();
+        }
+    }
+
+    //Waits at most @nanos for a value, returns it, null once the channel is closed and drained, or UnBufferedChannel.TIMED_OUT
+    Object timedTake(long nanos) throws InterruptedException {
+        T val = this.poll();
+        if (val == null) {
+            Object awaited = this.awaitReceive(nanos);
+            if (awaited == null || awaited == UnBufferedChannel.TIMED_OUT) return awaited;
+            val = this.cast(awaited);
+        }
+
+        this.signalSenders();
+        return val;
+    }
+
+    Object awaitReceive(long nanos) throws InterruptedException {
+        this.channelLock.lockInterruptibly();
+        this.waitingReceivers.incrementAndGet();
+        try {
+            while (true) {
+                T val = this.poll();
+                if (val != null) return val;
+                if (this.isClosed()) return null;
+                if (nanos <= 0) return UnBufferedChannel.TIMED_OUT;
+                nanos = this.canReceive.awaitNanos(nanos);
+            }
+        }finally {
+            this.waitingReceivers.decrementAndGet();
+            this.channelLock.unlock();
+        }
+    }
+
+    void signalReceivers(){
+        if (this.waitingReceivers.get() == 0) return;
+        this.channelLock.lock();
+        try {
+            this.canReceive.signal();
+        }finally {
+            this.channelLock.unlock();
+        }
+    }
+
+    void signalSenders(){
+        if (this.waitingSenders.get() == 0) return;
+        this.channelLock.lock();
+        try {
+            this.canSend.signal();
+        }finally {
+            this.channelLock.unlock();
+        }
+    }
+
+    //A batch frees or fills more than one slot, so every waiter on the other side may be able to go
+    void signalAllReceivers(){
+        if (this.waitingReceivers.get() == 0) return;
+        this.channelLock.lock();
+        try {
+            this.canReceive.signalAll();
+        }finally {
+            this.channelLock.unlock();
+        }
+    }
+
+    void signalAllSenders(){
+        if (this.waitingSenders.get() == 0) return;
+        this.channelLock.lock();
+        try {
+            this.canSend.signalAll();
+        }finally {
+            this.channelLock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    T cast(Object val){
+        return (T) val;
+    }
+
+    void verifyIfClosed(){
+        if (this.isClosed()) throw new ChannelClosedException(CHANNEL_CLOSED_MESSAGE);
+    }
+
+    void verifyIfNil(){
+        if (this.isNil()) throw new ChannelNilException(CHANNEL_NIL_MESSAGE);
+    }
+
+    boolean isClosed(){
+        return this.channelState.isClosed();
+    }
+
+    boolean isNil(){
+        return this.channelState.isNil();
+    }
+
+    //The ring's size, @capacity rounded up to a power of two
+    static int ringSize(int capacity){
+        if (capacity < 1) throw new IllegalArgumentException("capacity < 1");
+        int n = 1;
+        while (n < capacity) n <<= 1;
+        return n;
+    }
+}
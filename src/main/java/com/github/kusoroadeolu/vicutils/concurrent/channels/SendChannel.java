@@ -1,7 +1,20 @@
 package com.github.kusoroadeolu.vicutils.concurrent.channels;
 
+import java.time.Duration;
+import java.util.Collection;
+
 public interface SendChannel<T> extends UniDirectionalChannel<T>{
     void send(T val);
     boolean trySend(T val);
+
+    //Waits at most @timeout for room, or on an unbuffered channel for a receiver to take the value. Returns false if it timed out, the value then wasn't sent
+    boolean send(T val, Duration timeout) throws InterruptedException;
+
+    //send, but gives up with an InterruptedException if the thread's interrupted while it waits
+    void sendInterruptibly(T val) throws InterruptedException;
+
+    //Sends every value in @vals in iteration order, blocking like send whenever the channel is full, but waking receivers once per batch rather than once per value
+    //None may be null. If the channel closes part way the values sent so far stay sent and the rest are dropped with a ChannelClosedException
+    void sendAll(Collection<? extends T> vals);
     void close();
 }
@@ -0,0 +1,87 @@
+package com.github.kusoroadeolu.vicutils.concurrent.channels;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// A buffered channel for exactly one sending thread and one receiving thread, neither side ever CASes or locks unless it has to park
+/*Invariants
+* Only the sender writes @tail and only the receiver writes @head, each with one volatile store per op or batch, a second sender or receiver corrupts the ring
+* Each side keeps its last read of the other side's counter in its own counter's cache, and only rereads the other side's counter once the cache says full or empty,
+* so in the steady state neither side touches the other's cache line
+* The capacity is rounded up to a power of two so slots are found with a mask
+* */
+public class SpscChannel<T> extends RingChannel<T> {
+    private final AtomicReferenceArray<T> values;
+    private final int mask;
+    private final PaddedAtomicLong head; //Its cache is the receiver's last read of @tail
+    private final PaddedAtomicLong tail; //Its cache is the sender's last read of @head
+
+    public SpscChannel(int capacity) {
+        super(ringSize(capacity));
+        this.values = new AtomicReferenceArray<>(this.capacity);
+        this.mask = this.capacity - 1;
+        this.head = new PaddedAtomicLong(0);
+        this.tail = new PaddedAtomicLong(0);
+    }
+
+    boolean offer(T val){
+        long t = this.tail.getPlain();
+        if (t - this.tail.cache >= this.capacity) {
+            this.tail.cache = this.head.get();
+            if (t - this.tail.cache >= this.capacity) return false;
+        }
+
+        this.values.setPlain((int) t & this.mask, val);
+        this.tail.set(t + 1); //Publishes the value, volatile so it's ordered before reading the waiting receivers, see RingChannel
+        return true;
+    }
+
+    T poll(){
+        long h = this.head.getPlain();
+        if (h >= this.head.cache) {
+            this.head.cache = this.tail.get();
+            if (h >= this.head.cache) return null;
+        }
+
+        int idx = (int) h & this.mask;
+        T val = this.values.getPlain(idx);
+        this.values.setPlain(idx, null);
+        this.head.set(h + 1);
+        return val;
+    }
+
+    //Writes the whole run, then publishes it with one store to @tail
+    int offerAll(Object[] vals, int off, int len){
+        long t = this.tail.getPlain();
+        long free = this.capacity - (t - this.tail.cache);
+        if (free < len) {
+            this.tail.cache = this.head.get();
+            free = this.capacity - (t - this.tail.cache);
+        }
+
+        int n = (int) Math.min(free, len);
+        for (int i = 0; i < n; i++) this.values.setPlain((int) (t + i) & this.mask, this.cast(vals[off + i]));
+        if (n > 0) this.tail.set(t + n);
+        return n;
+    }
+
+    //Reads the whole run, then frees it with one store to @head
+    int pollAll(Collection<? super T> dst, int max){
+        long h = this.head.getPlain();
+        if (h + max > this.head.cache) this.head.cache = this.tail.get();
+        int n = (int) Math.min(this.head.cache - h, max);
+        for (int i = 0; i < n; i++) {
+            int idx = (int) (h + i) & this.mask;
+            dst.add(this.values.getPlain(idx));
+            this.values.setPlain(idx, null);
+        }
+
+        if (n > 0) this.head.set(h + n);
+        return n;
+    }
+
+    int size(){
+        long size = this.tail.get() - this.head.get();
+        return (int) Math.max(0, Math.min(size, this.capacity));
+    }
+}
@@ -1,9 +1,12 @@
 package com.github.kusoroadeolu.vicutils.concurrent.channels;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import static java.util.Objects.requireNonNull;
 
@@ -21,10 +24,13 @@ public class UnBufferedChannel<T> implements Channel<T> {
      final Condition canReceive; //Check if a thread can receive
      final Condition itemConsumed;
      int capacity;
+     long taken; //How many values receivers ever took, only touched under the lock. A timed sender's value is taken once this reaches its ticket
+     int waitingReceivers; //Receivers parked on @canReceive, or woken and not yet back under the lock. Only touched under the lock
      volatile State channelState;
      private final static int MAX_CAPACITY = 1;
      private final static String CHANNEL_CLOSED_MESSAGE = "Channel is already closed";
      private final static String CHANNEL_NIL_MESSAGE = "Channel is nil";
+     final static Object TIMED_OUT = new Object(); //Returned by the timed takes when they run out of time, null already means closed
 
     public UnBufferedChannel(){
         this.capacity = MAX_CAPACITY;
@@ -58,44 +64,93 @@ public class UnBufferedChannel<T> implements Channel<T> {
         this.channelLock.lock();
         try {
             this.verifyIfClosed();
-            while (!this.isEmpty() || this.isNil()) {
-                this.verifyIfClosed();
-                this.canSend.awaitUninterruptibly();  //Block indefinitely if the queue is not empty initially or the channel is nil
-            }
-
-            this.buf.add(val);
-            this.canReceive.signal();
-
-            while (!this.isEmpty()){
-                this.itemConsumed.awaitUninterruptibly(); //Block again till the item has been consumed
-            }
-
+            this.handOff(val);
+        } finally {
+            this.channelLock.unlock();
+        }
+    }
 
+    //Every value is still handed off one at a time, the batch only saves taking the lock per value
+    public void sendAll(Collection<? extends T> vals){
+        Object[] arr = requireNoNulls(vals);
+        this.verifyIfNil();
+        this.verifyIfClosed();
+        this.channelLock.lock();
+        try {
+            this.verifyIfClosed();
+            for (Object val : arr) this.handOff(this.cast(val));
         } finally {
             this.channelLock.unlock();
         }
     }
 
+    public boolean send(T val, Duration timeout) throws InterruptedException {
+        return this.timedSend(val, nanos(timeout));
+    }
+
+    public void sendInterruptibly(T val) throws InterruptedException {
+        this.timedSend(val, Long.MAX_VALUE);
+    }
+
     public Optional<T> receive() {
-        if (this.isClosed()) return this.fallbackNull(this.buf.poll());
-        this.channelLock.lock();
+        return this.fallbackNull(this.receiveOrNull());
+    }
+
+    public T receiveOrNull() {
+        this.channelLock.lock(); //Even once closed, the draining take has to be counted for the senders waiting on it
         T val;
         try {
             while (((val = this.buf.poll()) == null && !isClosed()) || this.isNil()){
                 //Block indefinitely if the channel does not have value and is not closed or the channel is NIL.
                 // Awaken only if the channel has closed or a new value arrived
-                this.canReceive.awaitUninterruptibly();
+                this.awaitValue();
 
             }
 
-            this.itemConsumed.signalAll();
-            this.canSend.signalAll();
+            this.consumed(val == null ? 0 : 1);
+
+        } finally {
+            this.channelLock.unlock();
+        }
+
+        return val;
+    }
 
+    public List<T> receiveBatch(int max){
+        requireMax(max);
+        List<T> batch = new ArrayList<>();
+        if (max == 0) return batch;
+        this.channelLock.lock();
+        try {
+            T val;
+            while (((val = this.buf.poll()) == null && !isClosed()) || this.isNil()){
+                this.awaitValue(); //Same as receive
+            }
+
+            if (val != null) {
+                batch.add(val);
+                this.consumed(1 + this.pollAll(batch, max - 1));
+            }
         } finally {
             this.channelLock.unlock();
         }
 
-        return this.fallbackNull(val);
+        return batch;
+    }
+
+    public int drainTo(Collection<? super T> dst, int max){
+        requireNonNull(dst);
+        requireMax(max);
+        if (this.isNil()) return 0;
+        this.channelLock.lock();
+        try {
+            if (this.isNil()) return 0;
+            int n = this.pollAll(dst, max);
+            if (n > 0) this.consumed(n);
+            return n;
+        } finally {
+            this.channelLock.unlock();
+        }
     }
 
 
@@ -119,22 +174,41 @@ public class UnBufferedChannel<T> implements Channel<T> {
     }
 
     public Optional<T> tryReceive() {
-        if (this.isNil()) return Optional.empty();
+        return this.fallbackNull(this.tryReceiveOrNull());
+    }
+
+    public T tryReceiveOrNull() {
+        if (this.isNil()) return null;
         this.channelLock.lock();
         T t;
         try {
-            if (this.isNil()) return Optional.empty();
+            if (this.isNil()) return null;
             t = this.buf.poll();
-            if (t != null) {
-                this.itemConsumed.signalAll();
-                this.canSend.signalAll();
-            }
+            if (t != null) this.consumed(1);
 
         } finally {
             this.channelLock.unlock();
         }
 
-        return this.fallbackNull(t);
+        return t;
+    }
+
+    public ChannelResult tryReceive(Consumer<? super T> action) {
+        requireNonNull(action);
+        boolean closed = this.isClosed(); //Read before polling, a closed channel that still came up empty is drained
+        T t = this.tryReceiveOrNull();
+        return accept(t, closed, action);
+    }
+
+    public ChannelResult receive(Duration timeout, Consumer<? super T> action) throws InterruptedException {
+        requireNonNull(action);
+        Object val = this.timedTake(nanos(timeout));
+        if (val == TIMED_OUT) return ChannelResult.TIMED_OUT;
+        return accept(this.cast(val), true, action);
+    }
+
+    public Optional<T> receiveInterruptibly() throws InterruptedException {
+        return this.fallbackNull(this.cast(this.timedTake(Long.MAX_VALUE)));
     }
 
     //The total cap of the buffer
@@ -171,6 +245,149 @@ public class UnBufferedChannel<T> implements Channel<T> {
         return this.buf.isEmpty();
      }
 
+    //Called under the lock with the channel open, blocks until @val is sent and consumed
+    void handOff(T val){
+        while (!this.isEmpty() || this.isNil()) {
+            this.verifyIfClosed();
+            this.canSend.awaitUninterruptibly();  //Block indefinitely if the queue is not empty initially or the channel is nil
+        }
+
+        this.buf.add(val);
+        this.canReceive.signal();
+
+        while (!this.isEmpty()){
+            this.itemConsumed.awaitUninterruptibly(); //Block again till the item has been consumed
+        }
+    }
+
+    //The timed and interruptible send, hands off like send but gives up after @nanos. Returns false if it timed out, @val was then never received
+    //A receiver that was already waiting when @val went in is signalled for it and always takes it, so the send waits for that receiver rather than retracting
+    //That's what lets a zero timeout succeed when a receiver is waiting, it can also finish a send a little past @nanos
+    boolean timedSend(T val, long nanos) throws InterruptedException {
+        requireNonNull(val);
+        this.verifyIfNil();
+        this.verifyIfClosed();
+        this.channelLock.lockInterruptibly();
+        try {
+            this.verifyIfClosed();
+            while (!this.isEmpty() || this.isNil()) {
+                this.verifyIfClosed();
+                if (nanos <= 0) return false;
+                nanos = this.canSend.awaitNanos(nanos);
+            }
+
+            this.buf.add(val);
+            long ticket = this.taken + 1;
+            this.canReceive.signal();
+            try {
+                while (this.taken < ticket) {
+                    if (nanos > 0) nanos = this.itemConsumed.awaitNanos(nanos);
+                    else if (this.waitingReceivers > 0) this.itemConsumed.await(); //Woken again once it took @val, or left without it
+                    else {
+                        this.retract();
+                        return false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                this.retract();
+                throw e;
+            }
+
+            return true;
+        } finally {
+            this.channelLock.unlock();
+        }
+    }
+
+    //Takes back a handed off value no receiver took. Everything before it was taken when it went in and takes are in order, so it's still the head
+    void retract(){
+        this.buf.poll();
+        this.canSend.signal();
+    }
+
+    //Waits at most @nanos for a value, returns it, null once the channel is closed and drained, or TIMED_OUT
+    Object timedTake(long nanos) throws InterruptedException {
+        this.channelLock.lockInterruptibly();
+        try {
+            T val;
+            while (((val = this.buf.poll()) == null && !isClosed()) || this.isNil()){
+                if (nanos <= 0) return TIMED_OUT;
+                nanos = this.awaitValue(nanos);
+            }
+
+            this.consumed(val == null ? 0 : 1);
+            return val;
+        } finally {
+            this.channelLock.unlock();
+        }
+    }
+
+    //Called under the lock, parks a receiver until a value arrives or the channel closes. Callers poll again once it returns
+    void awaitValue(){
+        this.waitingReceivers++;
+        this.canReceive.awaitUninterruptibly();
+        this.waitingReceivers--;
+    }
+
+    long awaitValue(long nanos) throws InterruptedException {
+        this.waitingReceivers++;
+        try {
+            return this.canReceive.awaitNanos(nanos);
+        } catch (InterruptedException e) {
+            if (!this.isEmpty()) this.canReceive.signal(); //It may have been signalled for the value, pass that on so a timed sender isn't left waiting on it
+            this.itemConsumed.signalAll();
+            throw e;
+        }finally {
+            this.waitingReceivers--;
+        }
+    }
+
+    //Called under the lock once @n values were taken
+    void consumed(int n){
+        this.taken += n;
+        this.itemConsumed.signalAll();
+        this.canSend.signalAll();
+    }
+
+    //Saturates rather than overflowing for huge timeouts
+    static long nanos(Duration timeout){
+        return TimeUnit.NANOSECONDS.convert(requireNonNull(timeout));
+    }
+
+    //Called under the lock, moves up to @max values from the buffer into @dst
+    int pollAll(Collection<? super T> dst, int max){
+        int n = 0;
+        T val;
+        while (n < max && (val = this.buf.poll()) != null) {
+            dst.add(val);
+            n++;
+        }
+
+        return n;
+    }
+
+    @SuppressWarnings("unchecked")
+    T cast(Object val){
+        return (T) val;
+    }
+
+    //Copies @vals so a batch is checked for nulls before any of it is sent
+    static Object[] requireNoNulls(Collection<?> vals){
+        Object[] arr = vals.toArray();
+        for (Object val : arr) requireNonNull(val);
+        return arr;
+    }
+
+    static <T> ChannelResult accept(T val, boolean closed, Consumer<? super T> action){
+        if (val == null) return closed ? ChannelResult.CLOSED : ChannelResult.EMPTY;
+        action.accept(val);
+        return ChannelResult.RECEIVED;
+    }
+
+    static void requireMax(int max){
+        if (max < 0) throw new IllegalArgumentException("max < 0");
+    }
+
      Optional<T> fallbackNull(T t){
          return t == null ? Optional.empty() : Optional.of(t);
      }
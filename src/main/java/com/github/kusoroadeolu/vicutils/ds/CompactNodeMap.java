@@ -0,0 +1,163 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.*;
+import java.util.function.Function;
+
+/*
+* A map of child nodes backed by a sorted char[] of keys and a parallel array of nodes.
+* Lookups binary search the keys, which for the handful of children most trie nodes have is as quick as hashing,
+* without a table, an entry object per child or a boxed key per lookup.
+* Leaves share the same empty arrays so a node without children costs only this object
+*
+* Not thread safe, callers guard it the same way they would guard a HashMap
+* */
+final class CompactNodeMap extends AbstractMap<Character, Trie.Node> {
+    private final static char[] NO_KEYS = {};
+    private final static Trie.Node[] NO_NODES = {};
+    private char[] keys;
+    private Trie.Node[] nodes;
+    private int size;
+
+    CompactNodeMap() {
+        this.keys = NO_KEYS;
+        this.nodes = NO_NODES;
+    }
+
+    public Trie.Node get(Object key) {
+        return key instanceof Character c ? this.get(c.charValue()) : null;
+    }
+
+    Trie.Node get(char c) {
+        int idx = this.indexOf(c);
+        return idx >= 0 ? this.nodes[idx] : null;
+    }
+
+    public boolean containsKey(Object key) {
+        return key instanceof Character c && this.indexOf(c) >= 0;
+    }
+
+    public Trie.Node put(Character key, Trie.Node node) {
+        char c = key;
+        int idx = this.indexOf(c);
+        if (idx >= 0) {
+            Trie.Node old = this.nodes[idx];
+            this.nodes[idx] = node;
+            return old;
+        }
+
+        this.insertAt(-(idx + 1), c, node);
+        return null;
+    }
+
+    public Trie.Node computeIfAbsent(Character key, Function<? super Character, ? extends Trie.Node> fn) {
+        char c = key;
+        int idx = this.indexOf(c);
+        if (idx >= 0) return this.nodes[idx];
+
+        Trie.Node node = fn.apply(key);
+        if (node != null) this.insertAt(-(idx + 1), c, node);
+        return node;
+    }
+
+    public Trie.Node remove(Object key) {
+        if (!(key instanceof Character c)) return null;
+        int idx = this.indexOf(c);
+        if (idx < 0) return null;
+        Trie.Node old = this.nodes[idx];
+        int moved = this.size - idx - 1;
+        System.arraycopy(this.keys, idx + 1, this.keys, idx, moved);
+        System.arraycopy(this.nodes, idx + 1, this.nodes, idx, moved);
+        this.nodes[--this.size] = null; //Don't hold on to the removed node
+        return old;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        this.keys = NO_KEYS;
+        this.nodes = NO_NODES;
+        this.size = 0;
+    }
+
+    public Collection<Trie.Node> values() {
+        return new AbstractCollection<>() {
+            public Iterator<Trie.Node> iterator() {
+                return new NodeIterator<>() {
+                    Trie.Node element(int idx) {
+                        return nodes[idx];
+                    }
+                };
+            }
+
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public Set<Entry<Character, Trie.Node>> entrySet() {
+        return new AbstractSet<>() {
+            public Iterator<Entry<Character, Trie.Node>> iterator() {
+                return new NodeIterator<>() {
+                    Entry<Character, Trie.Node> element(int idx) {
+                        return new SimpleImmutableEntry<>(keys[idx], nodes[idx]);
+                    }
+                };
+            }
+
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    int indexOf(char c) {
+        return Arrays.binarySearch(this.keys, 0, this.size, c);
+    }
+
+    //Shifts everything from idx one slot to the right, growing the arrays if they're full
+    private void insertAt(int idx, char c, Trie.Node node) {
+        if (this.size == this.keys.length) {
+            int cap = this.size + (this.size >> 1) + 1;
+            this.keys = Arrays.copyOf(this.keys, cap);
+            this.nodes = Arrays.copyOf(this.nodes, cap);
+        }
+
+        int moved = this.size - idx;
+        System.arraycopy(this.keys, idx, this.keys, idx + 1, moved);
+        System.arraycopy(this.nodes, idx, this.nodes, idx + 1, moved);
+        this.keys[idx] = c;
+        this.nodes[idx] = node;
+        ++this.size;
+    }
+
+    private abstract class NodeIterator<E> implements Iterator<E> {
+        private int idx;
+        private int last = -1;
+
+        abstract E element(int idx);
+
+        public boolean hasNext() {
+            return this.idx < size;
+        }
+
+        public E next() {
+            if (this.idx >= size) throw new NoSuchElementException();
+            this.last = this.idx;
+            return this.element(this.idx++);
+        }
+
+        public void remove() {
+            if (this.last < 0) throw new IllegalStateException();
+            CompactNodeMap.this.remove(keys[this.last]);
+            this.idx = this.last;
+            this.last = -1;
+        }
+    }
+}
@@ -1,19 +1,20 @@
 package com.github.kusoroadeolu.vicutils.ds;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 // A concurrent trie that allows multiple threads to perform operations on it concurrently
 /*Invariants
 * No two threads can ever call @add or @remove concurrently if they try to modify the same char in the map
-* @size is not weakly consistent and cannot be trusted fully, though it is good for estimating the amount of words that have been inserted
+* @sizeCounter is not weakly consistent and cannot be trusted fully, though it is good for estimating the amount of words that have been inserted
+* @sizeCounter is a LongAdder so writers of different heads don't all contend on one counter, reading it sums the cells and costs more than writing it
 * Multiple threads can read from this trie concurrently
 *
 * I am not using a concurrent hashmap for the trie head because each write is serialized using @writeLock, hence only one thread can modify it at a time
@@ -21,36 +22,51 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 * */
 // I did try copy on write, but I realized deep copying a full trie is definitely not worth it lol and will be very memory heavy
 public class ConcurrentTrie extends SequentialTrie implements Trie{
-    private final ConcurrentHashMap<Character, ReadWriteLock> lockMap;
-    private final AtomicInteger size;
-    public ConcurrentTrie(Map<Character, Map<Character, Node>> heads, int size) {
-        super(heads, size);
+    private final ConcurrentHashMap<Character, HeadLock> lockMap;
+    private final LongAdder sizeCounter; //Counts in place of the parent's int size, all bookkeeping goes through size() and addSize
+    public ConcurrentTrie(Map<Character, Node> heads, int size, NodeLayout layout, KeyNormalizer normalizer) {
+        super(heads, 0, layout, normalizer);
         this.lockMap = new ConcurrentHashMap<>();
-        this.size = new AtomicInteger();
+        this.sizeCounter = new LongAdder();
+        this.sizeCounter.add(size);
+    }
+
+    public ConcurrentTrie(Map<Character, Node> heads, int size, NodeLayout layout) {
+        this(heads, size, layout, KeyNormalizer.LOWER_CASE);
+    }
+
+    //The heads are always a concurrent map since writers of different heads add to it concurrently, the layout only applies below the heads
+    public ConcurrentTrie(NodeLayout layout, KeyNormalizer normalizer) {
+        this(new ConcurrentHashMap<>(), 0, layout, normalizer);
+    }
+
+    public ConcurrentTrie(NodeLayout layout) {
+        this(layout, KeyNormalizer.LOWER_CASE);
     }
 
     public ConcurrentTrie() {
-        this(new ConcurrentHashMap<>(), 0);
+        this(NodeLayout.HASHED);
+    }
+
+    public boolean add(CharSequence word){
+        return this.add(word, 0, false);
+    }
+
+    public boolean add(CharSequence word, int weight){
+        return this.add(word, weight, true);
     }
 
-    public boolean add(String word){
+    private boolean add(CharSequence word, int weight, boolean reweigh){
         this.validateWord(word);
-        word = word.toLowerCase();
-        char c = word.charAt(0);
-        ReadWriteLock lock = this.lockMap.computeIfAbsent(c, _ -> new ReentrantReadWriteLock());
+        String w = this.normalizer.normalize(word);
+        char c = w.charAt(0);
+        HeadLock lock = this.lockMap.computeIfAbsent(c, _ -> new HeadLock());
 
 
-        lock.writeLock().lock();
+        lock.lockWrite();
         try {
-            if (this.containsExact(word)) return false;
-            size.incrementAndGet(); //increment the size immediately, would be useful for CAS loops where i'll be checking the size rather than the reference itself
-            if (word.length() == 1) this.heads.putIfAbsent(c, new HashMap<>());
-            else {
-                final var map = this.addHead(word);
-                //Next character should always be 1
-                this.insert(word, map, 1);
-            }
-
+            if (!this.addWord(w, weight, reweigh)) return false;
+            this.addSize(1);
             return true;
         }finally {
             lock.writeLock().unlock();
@@ -58,21 +74,42 @@ public class ConcurrentTrie extends SequentialTrie implements Trie{
 
     }
 
-    public boolean remove(String word){
+    //Sorted words sharing a head sit in one run, each run is built in a single pass under its head's write lock, and runs are built in parallel on the common fork join pool
+    public int addAll(Collection<? extends CharSequence> words){
+        String[] sorted = this.sortedWords(words, true);
+        List<Integer> runs = new ArrayList<>(); //Start index of each run, plus the end
+        for (int i = 0; i < sorted.length; i++){
+            if (i == 0 || sorted[i].charAt(0) != sorted[i - 1].charAt(0)) runs.add(i);
+        }
+        runs.add(sorted.length);
+
+        return IntStream.range(0, runs.size() - 1).parallel().map(r -> {
+            int from = runs.get(r), to = runs.get(r + 1);
+            HeadLock lock = this.lockMap.computeIfAbsent(sorted[from].charAt(0), _ -> new HeadLock());
+            lock.lockWrite();
+            try {
+                int added = this.bulkInsert(sorted, from, to);
+                this.addSize(added);
+                return added;
+            }finally {
+                lock.writeLock().unlock();
+            }
+        }).sum();
+    }
+
+    public boolean remove(CharSequence word){
         this.validateWord(word);
-        word = word.toLowerCase();
-        char c = word.charAt(0);
+        String w = this.normalizer.normalize(word);
+        char c = w.charAt(0);
 
-        ReadWriteLock lock = this.lockMap.computeIfAbsent(c, _ -> new ReentrantReadWriteLock());
+        HeadLock lock = this.lockMap.computeIfAbsent(c, _ -> new HeadLock());
 
-        lock.writeLock().lock();
+        lock.lockWrite();
         try {
-            if (!this.containsExact(word)) return false;
-            size.decrementAndGet();
-            Map<Character, Node> map = heads.get(c);
-            //Index should be one here since we're passing the node map
-            int removeAt = this.findUniparentalOldestNode(word, map, 1, 0);
-            this.removeNodes(map, word, 1, removeAt);
+            Node end = this.findNode(w);
+            if (end == null || !end.isWordEnd()) return false;
+            this.addSize(-1);
+            if (this.removeNodes(this.heads.get(c), w, 0)) this.heads.remove(c);
             return true;
         }finally {
             lock.writeLock().unlock();
@@ -80,62 +117,175 @@ public class ConcurrentTrie extends SequentialTrie implements Trie{
 
     }
 
-    public List<String> startsWith(String prefix){
-        return this.findPrefixes(prefix, false);
+    public List<String> startsWith(CharSequence prefix){
+        this.validateWord(prefix);
+        HeadLock lock = this.lockMap.computeIfAbsent(this.headOf(prefix), _ -> new HeadLock());
+        lock.lockRead();
+        try {
+            return this.collectWords(prefix);
+        }finally {
+            lock.readLock().unlock();
+        }
     }
 
-    //Checks if a word contains words under this @prefix
-    public boolean containsPrefix(String prefix){
-        return this.findPrefixes(prefix, true).size() > 1;
+    //The head's read lock is held until every task is done, the pool's threads read under it
+    public List<String> parallelStartsWith(CharSequence prefix){
+        this.validateWord(prefix);
+        HeadLock lock = this.lockMap.computeIfAbsent(this.headOf(prefix), _ -> new HeadLock());
+        lock.lockRead();
+        try {
+            return super.parallelStartsWith(prefix);
+        }finally {
+            lock.readLock().unlock();
+        }
     }
 
-    public boolean containsExact(String word){
+    public List<String> topK(CharSequence prefix, int k){
+        this.validateWord(prefix);
+        HeadLock lock = this.lockMap.computeIfAbsent(this.headOf(prefix), _ -> new HeadLock());
+        lock.lockRead();
+        try {
+            return super.topK(prefix, k);
+        }finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Consistent, the words are collected under the head's read lock up front
+    public Iterator<String> prefixIterator(CharSequence prefix){
+        return this.prefixIterator(prefix, false);
+    }
+
+    //Weakly consistent walks are lazy and only hold the head's read lock while copying out each node's children, so a long walk never starves writers
+    public Iterator<String> prefixIterator(CharSequence prefix, boolean weaklyConsistent){
+        if (!weaklyConsistent) return this.startsWith(prefix).iterator();
+        this.validateWord(prefix);
+        String p = this.normalizer.normalize(prefix);
+        HeadLock lock = this.lockMap.computeIfAbsent(p.charAt(0), _ -> new HeadLock());
+        Node node;
+        lock.lockRead();
+        try {
+            node = this.findNode(p);
+        }finally {
+            lock.readLock().unlock();
+        }
+
+        return node == null ? Collections.emptyIterator() : new PrefixIterator(p, node, lock.readLock());
+    }
+
+    public Stream<String> prefixStream(CharSequence prefix, boolean weaklyConsistent){
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this.prefixIterator(prefix, weaklyConsistent), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    public boolean containsPrefix(CharSequence prefix){
+        return this.countWithPrefix(prefix) > 0;
+    }
+
+    public int countWithPrefix(CharSequence prefix){
+        this.validateWord(prefix);
+        HeadLock lock = this.lockMap.computeIfAbsent(this.headOf(prefix), _ -> new HeadLock());
+        lock.lockRead();
+        try {
+            Node node = this.lookup(prefix);
+            return node == null ? 0 : node.wordCount();
+        }finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean containsExact(CharSequence word){
         this.validateWord(word);
-        word = word.toLowerCase();
-        char c = word.charAt(0);
-        ReadWriteLock lock = this.lockMap.computeIfAbsent(c, _ -> new ReentrantReadWriteLock());
+        HeadLock lock = this.lockMap.computeIfAbsent(this.headOf(word), _ -> new HeadLock());
         //Don't need to lock on this op si
 
 
-        lock.readLock().lock();
+        lock.lockRead();
         try {
-            Map<Character, Node> currMap = this.heads.get(c);
-            if (word.length() == 1) return this.heads.containsKey(c);
-            if (currMap == null) return false;
-            Node node = null;
-            for (int i = 1; i < word.length(); i++){
-                node = currMap.get(word.charAt(i));
-                if (node == null) return false; //Ensure this char exists
-                currMap = node.children();
-            }
-            return node.isWordEnd();
+            Node node = this.lookup(word);
+            return node != null && node.isWordEnd();
         }finally {
             lock.readLock().unlock();
         }
     }
 
+    //Every head is searched under its own read lock, one at a time, so a search never holds more than one lock
+    public List<String> fuzzy(CharSequence word, int maxEdits){
+        this.validateWord(word);
+        if (maxEdits < 0) throw new IllegalArgumentException("maxEdits < 0");
+        FuzzySearch search = new FuzzySearch(this.normalizer.normalize(word), maxEdits);
+        List<String> words = new ArrayList<>();
+        for (Character c : this.heads.keySet()){
+            HeadLock lock = this.lockMap.computeIfAbsent(c, _ -> new HeadLock());
+            lock.lockRead();
+            try {
+                Node head = this.heads.get(c);
+                if (head != null) search.search(head, words);
+            }finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        return words;
+    }
+
     public int size(){
-        return this.size.get();
+        return (int) this.sizeCounter.sum();
     }
 
-    List<String> findPrefixes(String prefix, boolean shouldBreak){
-        this.validateWord(prefix);
-        prefix = prefix.toLowerCase();
-        List<String> list = new ArrayList<>();
-        char c = prefix.charAt(0);
-        ReadWriteLock lock = this.lockMap.computeIfAbsent(c, _ -> new ReentrantReadWriteLock());
+    void addSize(int delta){
+        this.sizeCounter.add(delta);
+    }
 
-        lock.readLock().lock();
+    //Each head is measured under its own read lock, one at a time, so writers of the other heads carry on while this runs
+    //The lock wait times cover every head that has ever been locked, including heads that have since been removed
+    public TrieStats stats(){
+        int[] shape = new int[2];
+        Map<Character, Integer> words = new TreeMap<>();
+        for (Character c : this.heads.keySet()){
+            HeadLock lock = this.lockMap.computeIfAbsent(c, _ -> new HeadLock());
+            lock.lockRead();
+            try {
+                Node head = this.heads.get(c);
+                if (head != null) this.measure(head, shape, words);
+            }finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        Map<Character, Long> waits = new TreeMap<>();
+        this.lockMap.forEach((c, lock) -> waits.put(c, lock.waitNanos()));
+        return new TrieStats(shape[0], shape[1], words, waits);
+    }
+
+    //Consistent the same way freeze is, the copy is a ConcurrentTrie of its own
+    public Trie copy(){
+        return this.withHeadsLocked(heads -> new ConcurrentTrie(this.copyHeads(heads, new ConcurrentHashMap<>()), this.size(), this.layout, this.normalizer));
+    }
+
+    public Trie freeze(){
+        return this.withHeadsLocked(heads -> FrozenTrie.of(heads, this.normalizer));
+    }
+
+
+    //Helpers
+
+    //Read locks every head that exists when called and runs @fn over them, so @fn sees a consistent view of them. Heads added meanwhile aren't included
+    //Writers only ever hold one head's lock, so taking several here in any order can't deadlock
+    <R> R withHeadsLocked(Function<List<Node>, R> fn){
+        List<ReadWriteLock> locks = new ArrayList<>();
+        List<Node> heads = new ArrayList<>();
         try {
-            Map<Character, Node> nodes = this.heads.get(c);
-            if (nodes == null) return list;
+            for (Character c : this.heads.keySet()){
+                HeadLock lock = this.lockMap.computeIfAbsent(c, _ -> new HeadLock());
+                lock.lockRead();
+                locks.add(lock);
+                Node head = this.heads.get(c); //Could have been removed before we locked it
+                if (head != null) heads.add(head);
+            }
 
-            String s = Character.toString(c);
-            list.add(s);
-            this.findWords(nodes, list, s, prefix.length() ,shouldBreak);
-            return list;
+            return fn.apply(heads);
         }finally {
-            lock.readLock().unlock();
+            for (ReadWriteLock lock : locks) lock.readLock().unlock();
         }
     }
 }
@@ -0,0 +1,103 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// A TrieMap locked per head char the same way ConcurrentTrie is, keys under different heads never contend
+/*Invariants
+* Every read or write of a key holds its head's lock, so values are published by the lock like the nodes are
+* computeIfAbsent runs @fn under the head's write lock, so it's called at most once per key, but it blocks that head while it runs
+* @sizeCounter is only an estimate while writers are running, same as ConcurrentTrie's
+* */
+public class ConcurrentTrieMap<V> extends SequentialTrieMap<V> {
+    private final ConcurrentHashMap<Character, HeadLock> lockMap;
+    private final LongAdder sizeCounter;
+
+    //The heads are always a concurrent map since writers of different heads add to it concurrently, the layout only applies below the heads
+    public ConcurrentTrieMap(NodeLayout layout, KeyNormalizer normalizer) {
+        super(new ConcurrentHashMap<>(), layout, normalizer);
+        this.lockMap = new ConcurrentHashMap<>();
+        this.sizeCounter = new LongAdder();
+    }
+
+    public ConcurrentTrieMap(NodeLayout layout) {
+        this(layout, KeyNormalizer.LOWER_CASE);
+    }
+
+    public ConcurrentTrieMap() {
+        this(NodeLayout.HASHED);
+    }
+
+    public V get(CharSequence key){
+        this.trie.validateWord(key);
+        HeadLock lock = this.lockMap.computeIfAbsent(this.trie.headOf(key), _ -> new HeadLock());
+        lock.lockRead();
+        try {
+            return this.valueOf(this.trie.lookup(key));
+        }finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public V put(CharSequence key, V value){
+        this.trie.validateWord(key);
+        Objects.requireNonNull(value, "value");
+        String k = this.trie.normalizer.normalize(key);
+        HeadLock lock = this.lockMap.computeIfAbsent(k.charAt(0), _ -> new HeadLock());
+        lock.lockWrite();
+        try {
+            return this.putValue(k, value);
+        }finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public V computeIfAbsent(CharSequence key, Function<? super String, ? extends V> fn){
+        V value = this.get(key); //Most calls find the value, they only need the read lock
+        if (value != null) return value;
+        String k = this.trie.normalizer.normalize(key);
+        HeadLock lock = this.lockMap.computeIfAbsent(k.charAt(0), _ -> new HeadLock());
+        lock.lockWrite();
+        try {
+            return this.computeValue(k, fn);
+        }finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public V remove(CharSequence key){
+        this.trie.validateWord(key);
+        String k = this.trie.normalizer.normalize(key);
+        HeadLock lock = this.lockMap.computeIfAbsent(k.charAt(0), _ -> new HeadLock());
+        lock.lockWrite();
+        try {
+            return this.removeValue(k);
+        }finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Map.Entry<String, V>> entries(CharSequence prefix){
+        this.trie.validateWord(prefix);
+        String p = this.trie.normalizer.normalize(prefix);
+        HeadLock lock = this.lockMap.computeIfAbsent(p.charAt(0), _ -> new HeadLock());
+        lock.lockRead();
+        try {
+            return this.collectEntries(p);
+        }finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size(){
+        return (int) this.sizeCounter.sum();
+    }
+
+    void addSize(int delta){
+        this.sizeCounter.add(delta);
+    }
+}
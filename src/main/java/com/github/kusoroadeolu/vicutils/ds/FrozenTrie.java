@@ -0,0 +1,99 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.*;
+
+// An immutable trie laid out level by level over primitive arrays, for tries that are loaded once and then only read
+/*Invariants
+* See LevelOrderTrie for the layout, bit i of @words is set if node i is a word end
+* A node costs a char and an int plus a bit, against a Node object, a child map and a boxed key per node in the mutable tries
+* */
+public final class FrozenTrie extends LevelOrderTrie {
+    private final char[] labels;
+    private final int[] firstChild; //One longer than the node count, the last entry closes the last node's range
+    private final long[] words;
+    private final int size;
+    private final KeyNormalizer normalizer;
+
+    private FrozenTrie(char[] labels, int[] firstChild, long[] words, int size, KeyNormalizer normalizer) {
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.words = words;
+        this.size = size;
+        this.normalizer = normalizer;
+    }
+
+    //Freezes the subtrees under these heads, the caller guarantees nothing writes to them until this returns
+    static FrozenTrie of(Collection<Trie.Node> heads, KeyNormalizer normalizer){
+        int n = 1;
+        for (Trie.Node head : heads) n += count(head);
+
+        char[] labels = new char[n];
+        int[] firstChild = new int[n + 1];
+        long[] words = new long[(n + 63) >>> 6];
+        Trie.Node[] order = new Trie.Node[n]; //The node numbered i, only needed while the arrays are built
+        int size = 0;
+        int tail = 1;
+        for (int i = 0; i < n; i++){
+            firstChild[i] = tail;
+            for (Trie.Node child : sortedChildren(i == 0 ? heads : order[i].children().values())){
+                order[tail] = child;
+                labels[tail] = child.c();
+                if (child.isWordEnd()) {
+                    words[tail >>> 6] |= 1L << tail;
+                    ++size;
+                }
+                ++tail;
+            }
+        }
+
+        firstChild[n] = tail;
+        return new FrozenTrie(labels, firstChild, words, size, normalizer);
+    }
+
+    //Freezes these words, they must already be validated, normalized and sorted
+    static FrozenTrie ofSorted(List<String> words, KeyNormalizer normalizer){
+        SequentialTrie trie = new SequentialTrie(NodeLayout.COMPACT, normalizer);
+        trie.addAll(words);
+        return of(trie.heads.values(), normalizer);
+    }
+
+    public int size(){
+        return this.size;
+    }
+
+    char label(int node){
+        return this.labels[node];
+    }
+
+    int firstChild(int node){
+        return this.firstChild[node];
+    }
+
+    boolean isWord(int node){
+        return (this.words[node >>> 6] & (1L << node)) != 0;
+    }
+
+    int nodes(){
+        return this.labels.length;
+    }
+
+    KeyNormalizer normalizer(){
+        return this.normalizer;
+    }
+
+
+    //Helpers
+
+    static int count(Trie.Node node){
+        int count = 1;
+        for (Trie.Node child : node.children().values()) count += count(child);
+        return count;
+    }
+
+    //Compact children are already sorted, hashed ones usually but not always are
+    static Trie.Node[] sortedChildren(Collection<Trie.Node> children){
+        Trie.Node[] nodes = children.toArray(new Trie.Node[0]);
+        Arrays.sort(nodes, Comparator.comparingInt(Trie.Node::c));
+        return nodes;
+    }
+}
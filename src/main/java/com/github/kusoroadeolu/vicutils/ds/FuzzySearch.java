@@ -0,0 +1,59 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Finds every word within @maxEdits insertions, deletions or substitutions of @word, walking the trie with one Levenshtein row per depth
+/*Invariants
+* rows[d] is the edit distance row between the path's first d chars and every prefix of @word, rows[0] is 0..|word|
+* Walking down a node only computes the next row from its parent's, so shared prefixes share the work
+* A subtree is pruned as soon as its row's minimum exceeds @maxEdits, no word below it can come back under
+* Rows and the path buffer are reused across the walk, not thread safe, one search per walk
+* */
+final class FuzzySearch {
+    private final String word;
+    private final int maxEdits;
+    private int[][] rows;
+    private char[] path;
+
+    FuzzySearch(String word, int maxEdits) {
+        this.word = word;
+        this.maxEdits = maxEdits;
+        this.rows = new int[16][];
+        this.path = new char[16];
+        int[] first = new int[word.length() + 1];
+        for (int i = 0; i < first.length; i++) first[i] = i;
+        this.rows[0] = first;
+    }
+
+    //Adds the matching words under this head
+    void search(Trie.Node head, List<String> words){
+        this.visit(head, 1, words);
+    }
+
+    private void visit(Trie.Node node, int depth, List<String> words){
+        if (depth == this.rows.length) {
+            this.rows = Arrays.copyOf(this.rows, depth * 2);
+            this.path = Arrays.copyOf(this.path, depth * 2);
+        }
+
+        int m = this.word.length();
+        int[] prev = this.rows[depth - 1];
+        int[] row = this.rows[depth];
+        if (row == null) row = this.rows[depth] = new int[m + 1];
+
+        char c = node.c();
+        this.path[depth - 1] = c;
+        row[0] = depth;
+        int min = depth;
+        for (int i = 1; i <= m; i++){
+            int substitute = prev[i - 1] + (this.word.charAt(i - 1) == c ? 0 : 1);
+            row[i] = Math.min(substitute, Math.min(row[i - 1], prev[i]) + 1);
+            min = Math.min(min, row[i]);
+        }
+
+        if (min > this.maxEdits) return;
+        if (node.isWordEnd() && row[m] <= this.maxEdits) words.add(new String(this.path, 0, depth));
+        for (Trie.Node child : node.children().values()) this.visit(child, depth + 1, words);
+    }
+}
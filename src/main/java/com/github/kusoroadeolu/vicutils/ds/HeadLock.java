@@ -0,0 +1,32 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// The read write lock of one head, that also keeps how long threads have waited to take it
+/*Invariants
+* An uncontended acquire is a single tryLock and never reads the clock, only an acquire that has to block is timed
+* @waitNanos only grows, it's striped so timing waits never adds a shared hot counter of its own
+* */
+@SuppressWarnings("serial") //Never serialized, it only lives in a trie's lock map
+final class HeadLock extends ReentrantReadWriteLock {
+    private final LongAdder waitNanos = new LongAdder();
+
+    void lockRead(){
+        if (this.readLock().tryLock()) return;
+        long start = System.nanoTime();
+        this.readLock().lock();
+        this.waitNanos.add(System.nanoTime() - start);
+    }
+
+    void lockWrite(){
+        if (this.writeLock().tryLock()) return;
+        long start = System.nanoTime();
+        this.writeLock().lock();
+        this.waitNanos.add(System.nanoTime() - start);
+    }
+
+    long waitNanos(){
+        return this.waitNanos.sum();
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+// Maps each code point of a key before it's stored or looked up, so a trie can fold case, or not, without its callers copying keys
+/*Invariants
+* Applied per code point, never per char, so a surrogate pair is normalized as the one code point it encodes and is never split.
+* A supplementary code point is stored as its two UTF-16 chars, a node each
+* Lookups apply it as they walk down, so they never build the normalized key.
+* normalize(CharSequence) is only used where the key has to be kept, and it returns the key itself when that's a String that's already normalized
+* */
+@FunctionalInterface
+public interface KeyNormalizer {
+    //Keys are stored and matched exactly as given
+    KeyNormalizer IDENTITY = cp -> cp;
+
+    //Locale independent lower casing, the default for every trie
+    KeyNormalizer LOWER_CASE = cp -> Character.toLowerCase(cp);
+
+    //Upper then lower, so letters with more than one lower case form, like the Greek final sigma, fold to the same key
+    KeyNormalizer CASE_FOLD = cp -> Character.toLowerCase(Character.toUpperCase(cp));
+
+    int normalize(int codePoint);
+
+    default String normalize(CharSequence key){
+        int len = key.length();
+        int i = 0;
+        while (i < len){ //Skip the leading code points that are already normalized
+            int cp = Character.codePointAt(key, i);
+            if (this.normalize(cp) != cp) break;
+            i += Character.charCount(cp);
+        }
+
+        if (i == len) return key.toString(); //A String returns itself
+        StringBuilder sb = new StringBuilder(len);
+        sb.append(key, 0, i);
+        while (i < len){
+            int cp = Character.codePointAt(key, i);
+            sb.appendCodePoint(this.normalize(cp));
+            i += Character.charCount(cp);
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+// The read side of an immutable trie laid out level by level, shared by the on heap FrozenTrie and the file backed MappedTrie
+/*Invariants
+* Nodes are numbered in breadth first order, node 0 is a virtual root whose children are the heads
+* The children of node i are the nodes [firstChild(i), firstChild(i + 1)), sorted by their label, so a child lookup is a binary search over labels
+* Every node is a word end or leads to one, since these tries are only built from pruned tries
+* Nothing is ever written after construction, so any number of threads can read without locks
+* */
+abstract sealed class LevelOrderTrie implements Trie permits FrozenTrie, MappedTrie {
+
+    //The label of node i, node 0 has none
+    abstract char label(int node);
+
+    //The first child of node i, valid for i in [0, nodes()], the last entry closes the last node's range
+    abstract int firstChild(int node);
+
+    abstract boolean isWord(int node);
+
+    //Number of nodes, the virtual root included
+    abstract int nodes();
+
+    //The normalizer of the trie this was frozen from, keys are matched the same way they were stored
+    abstract KeyNormalizer normalizer();
+
+    public boolean add(CharSequence word){
+        throw new UnsupportedOperationException("frozen trie");
+    }
+
+    public boolean remove(CharSequence word){
+        throw new UnsupportedOperationException("frozen trie");
+    }
+
+    public int addAll(Collection<? extends CharSequence> words){
+        throw new UnsupportedOperationException("frozen trie");
+    }
+
+    public List<String> startsWith(CharSequence prefix){
+        this.validateWord(prefix);
+        String p = this.normalizer().normalize(prefix);
+        List<String> list = new ArrayList<>();
+        int node = this.findNode(p);
+        if (node < 0) return list;
+
+        char[] path = Arrays.copyOf(p.toCharArray(), Math.max(16, p.length() * 2));
+        this.findWords(node, path, p.length(), list);
+        return list;
+    }
+
+    public boolean containsPrefix(CharSequence prefix){
+        this.validateWord(prefix);
+        return this.lookup(prefix) >= 0;
+    }
+
+    //A node's descendants on each level below it are one contiguous range, so this counts word bits level by level without a stack
+    public int countWithPrefix(CharSequence prefix){
+        this.validateWord(prefix);
+        int node = this.lookup(prefix);
+        if (node < 0) return 0;
+
+        int count = 0;
+        for (int lo = node, hi = node + 1; lo < hi; lo = this.firstChild(lo), hi = this.firstChild(hi)){
+            for (int i = lo; i < hi; i++){
+                if (this.isWord(i)) ++count;
+            }
+        }
+
+        return count;
+    }
+
+    public boolean containsExact(CharSequence word){
+        this.validateWord(word);
+        int node = this.lookup(word);
+        return node >= 0 && this.isWord(node);
+    }
+
+    //Nothing can change it, so it is its own copy
+    public Trie copy(){
+        return this;
+    }
+
+    public Trie freeze(){
+        return this;
+    }
+
+    //Number of nodes, the virtual root excluded
+    public int nodeCount(){
+        return this.nodes() - 1;
+    }
+
+
+    //Helpers
+
+    //Same as SequentialTrie.lookup, walks down a key that isn't normalized yet, normalizing each code point on the way
+    int lookup(CharSequence key){
+        KeyNormalizer normalizer = this.normalizer();
+        int node = 0;
+        for (int i = 0; i < key.length() && node >= 0; ){
+            int cp = Character.codePointAt(key, i);
+            i += Character.charCount(cp);
+            int n = normalizer.normalize(cp);
+            if (Character.isBmpCodePoint(n)) node = this.child(node, (char) n);
+            else {
+                node = this.child(node, Character.highSurrogate(n));
+                if (node >= 0) node = this.child(node, Character.lowSurrogate(n));
+            }
+        }
+
+        return node;
+    }
+
+    //The node this normalized prefix ends on, or -1 if the path doesn't exist
+    int findNode(String prefix){
+        int node = 0;
+        for (int i = 0; i < prefix.length(); i++){
+            node = this.child(node, prefix.charAt(i));
+            if (node < 0) return -1;
+        }
+
+        return node;
+    }
+
+    //Binary search over the labels of @node's children
+    int child(int node, char c){
+        int lo = this.firstChild(node), hi = this.firstChild(node + 1) - 1;
+        while (lo <= hi){
+            int mid = (lo + hi) >>> 1;
+            char l = this.label(mid);
+            if (l < c) lo = mid + 1;
+            else if (l > c) hi = mid - 1;
+            else return mid;
+        }
+
+        return -1;
+    }
+
+    //@path holds the chars up to and including @node's label in [0, len)
+    void findWords(int node, char[] path, int len, List<String> words){
+        if (this.isWord(node)) words.add(new String(path, 0, len));
+        if (len == path.length) path = Arrays.copyOf(path, path.length * 2);
+        for (int child = this.firstChild(node), end = this.firstChild(node + 1); child < end; child++){
+            path[len] = this.label(child);
+            this.findWords(child, path, len + 1, words);
+        }
+    }
+
+    void validateWord(CharSequence s){
+        if (s == null || s.isEmpty()) throw new IllegalArgumentException("word != null && word != \"\"");
+    }
+}
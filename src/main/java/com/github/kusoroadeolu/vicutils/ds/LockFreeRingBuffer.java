@@ -0,0 +1,156 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// A lock free ring buffer for one producer and any number of readers, modelled on the Disruptor's ring, every add gets the next sequence and every slot is stamped with the sequence it holds
+/*Invariants
+* Only one thread may ever call @add, readers never block it and it never waits for them, a slow reader just finds its slot overwritten
+* Sequence s lives in slot s & @mask, the capacity is a power of two so that's a mask rather than a modulo
+* A slot's stamp is s + 1 once sequence s is published in it, and WRITING while the producer is swapping its value. Stamps only ever go up, WRITING aside
+* A reader reads the stamp, the value, then the stamp again, and keeps the value only if both stamps are the sequence it wanted, so it never returns a value from a different sequence
+* @published is the number of sequences published, it's written after the slot's stamp, so every sequence below it was fully written at some point
+* */
+// Unlike RingBuffer, reads are by logical position (oldest to newest) rather than by physical slot, a slot on its own means nothing once the producer laps it
+public class LockFreeRingBuffer<T> implements Iterable<T>{
+    private final static VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+    private final static VarHandle STAMPS = MethodHandles.arrayElementVarHandle(long[].class);
+    private final static VarHandle PUBLISHED;
+    private final static long WRITING = -1;
+    private final static Object MISSING = new Object(); //Returned by @read when the sequence was overwritten while reading it
+    private final Object[] buf;
+    private final long[] stamps;
+    private final int mask;
+    private volatile long published;
+
+    static {
+        try {
+            PUBLISHED = MethodHandles.lookup().findVarHandle(LockFreeRingBuffer.class, "published", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    //@capacity is rounded up to a power of two
+    public LockFreeRingBuffer(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity < 1");
+        int n = 1;
+        while (n < capacity) n <<= 1;
+        this.buf = new Object[n];
+        this.stamps = new long[n];
+        this.mask = n - 1;
+    }
+
+    /**
+     * Add an element, overwriting the oldest element if the buffer is full. Only ever called from the one producer thread
+     * @param val The value to add
+     * @return The value overwritten, returns null if no value was overwritten
+     * */
+    @SuppressWarnings("unchecked")
+    public T add(T val){
+        long seq = this.published; //Only the producer writes it, so it's also the next sequence
+        int idx = (int) seq & this.mask;
+        T old = (T) this.buf[idx];
+        STAMPS.setOpaque(this.stamps, idx, WRITING);
+        VarHandle.storeStoreFence(); //A reader that sees the new value must also see the slot as being written
+        SLOTS.setRelease(this.buf, idx, val);
+        STAMPS.setRelease(this.stamps, idx, seq + 1);
+        PUBLISHED.setRelease(this, seq + 1);
+        return old;
+    }
+
+    //The oldest element still in the buffer, or null if nothing was added yet
+    @SuppressWarnings("unchecked")
+    public T head(){
+        while (true){
+            long p = (long) PUBLISHED.getAcquire(this);
+            if (p == 0) return null;
+            Object val = this.read(Math.max(0, p - this.buf.length));
+            if (val != MISSING) return (T) val; //Otherwise the producer lapped it, the head has moved on
+        }
+    }
+
+    //The newest element, or null if nothing was added yet
+    @SuppressWarnings("unchecked")
+    public T getLast(){
+        while (true){
+            long p = (long) PUBLISHED.getAcquire(this);
+            if (p == 0) return null;
+            Object val = this.read(p - 1);
+            if (val != MISSING) return (T) val;
+        }
+    }
+
+    //The @index-th oldest element as of the call, throws if it was overwritten by the time it was read
+    @SuppressWarnings("unchecked")
+    public T get(int index){
+        long p = (long) PUBLISHED.getAcquire(this);
+        int size = (int) Math.min(p, this.buf.length);
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index >= " + size);
+        Object val = this.read(p - size + index);
+        if (val == MISSING) throw new IndexOutOfBoundsException("index " + index + " was overwritten");
+        return (T) val;
+    }
+
+    public int capacity(){
+        return this.buf.length;
+    }
+
+    //How many elements are in the buffer, at most the capacity
+    public int size(){
+        return (int) Math.min(this.published, this.buf.length);
+    }
+
+    //How many elements were ever added
+    public long sequence(){
+        return this.published;
+    }
+
+    //Weakly consistent, oldest to newest as of the call. Elements the producer overwrites mid walk are skipped
+    public Iterator<T> iterator(){
+        return new LockFreeRingBufferIterator();
+    }
+
+
+    //Helpers
+
+    //The value of sequence @seq, or MISSING if its slot no longer (or doesn't yet) hold it
+    Object read(long seq){
+        int idx = (int) seq & this.mask;
+        long stamp = (long) STAMPS.getAcquire(this.stamps, idx);
+        if (stamp != seq + 1) return MISSING;
+        Object val = SLOTS.getAcquire(this.buf, idx);
+        VarHandle.loadLoadFence(); //The second stamp read can't float above the value read
+        return (long) STAMPS.getAcquire(this.stamps, idx) == stamp ? val : MISSING;
+    }
+
+    private class LockFreeRingBufferIterator implements Iterator<T> {
+        private final long end;
+        private long seq;
+        private Object next = MISSING;
+
+        LockFreeRingBufferIterator() {
+            this.end = (long) PUBLISHED.getAcquire(LockFreeRingBuffer.this);
+            this.seq = Math.max(0, this.end - buf.length);
+        }
+
+        public boolean hasNext() {
+            while (this.next == MISSING && this.seq < this.end){
+                this.next = read(this.seq++);
+                if (this.next == MISSING) this.seq = Math.max(this.seq, (long) PUBLISHED.getAcquire(LockFreeRingBuffer.this) - buf.length); //Lapped, skip to the current head
+            }
+
+            return this.next != MISSING;
+        }
+
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!this.hasNext()) throw new NoSuchElementException();
+            T val = (T) this.next;
+            this.next = MISSING;
+            return val;
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// A lock free trie with O(1) snapshots, modelled on Prokopec's Ctrie but keyed per character rather than by hash
+/*Invariants
+* Every node is reached through an indirection node (INode), the node behind it (its main node) is immutable. Writers never mutate a node, they build a new main node and CAS it into the INode
+* All CASes on a main node go through @gcas, which only commits if the trie's root generation hasn't changed since the CAS began, this is what makes snapshots safe
+* A main node without children that isn't a word end gets tombed (TNode). A tombed INode can never be written to again, it's cleaned out of its parent by whoever runs into it
+* Snapshots swap the root for a copy with a new generation (RDCSS), INodes from an older generation are lazily copied the first time a writer walks through them
+* @size is not weakly consistent and cannot be trusted fully, the same as ConcurrentTrie
+* */
+// I didn't use AtomicReferences for the main/prev fields because that would be an extra object per node, on a structure whose cost is already dominated by node count
+public class LockFreeTrie implements Trie{
+    private final static VarHandle MAIN;
+    private final static VarHandle PREV;
+    private final static Object RESTART = new Object(); //Returned when an op lost a race and has to start again from the root
+    private final AtomicReference<Object> root; //Either an INode or an RDCSS descriptor while a snapshot is being taken
+    private final AtomicInteger size;
+    private final boolean readOnly;
+    private final KeyNormalizer normalizer; //Keys are normalized into a String once up front, a CNode walk has nothing to gain from normalizing during it
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MAIN = lookup.findVarHandle(INode.class, "main", MainNode.class);
+            PREV = lookup.findVarHandle(MainNode.class, "prev", MainNode.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    LockFreeTrie(INode root, int size, boolean readOnly, KeyNormalizer normalizer) {
+        this.root = new AtomicReference<>(root);
+        this.size = new AtomicInteger(size);
+        this.readOnly = readOnly;
+        this.normalizer = normalizer;
+    }
+
+    public LockFreeTrie(KeyNormalizer normalizer) {
+        this(new INode(new CNode(false), new Gen()), 0, false, normalizer);
+    }
+
+    public LockFreeTrie() {
+        this(KeyNormalizer.LOWER_CASE);
+    }
+
+    public boolean add(CharSequence word){
+        this.validateWord(word);
+        this.verifyWritable();
+        String w = this.normalizer.normalize(word);
+        Object res;
+        do {
+            INode r = this.readRoot(false);
+            res = this.insert(r, w, r.gen);
+        } while (res == RESTART);
+
+        if ((Boolean) res) this.size.incrementAndGet();
+        return (Boolean) res;
+    }
+
+    public boolean remove(CharSequence word){
+        this.validateWord(word);
+        this.verifyWritable();
+        String w = this.normalizer.normalize(word);
+        Object res;
+        do {
+            INode r = this.readRoot(false);
+            res = this.remove(r, r, null, w, 0, r.gen);
+        } while (res == RESTART);
+
+        if ((Boolean) res) this.size.decrementAndGet();
+        return (Boolean) res;
+    }
+
+    //Walks a read only snapshot, so the words returned are all from one consistent point in time
+    public List<String> startsWith(CharSequence prefix){
+        this.validateWord(prefix);
+        String p = this.normalizer.normalize(prefix);
+        LockFreeTrie snapshot = this.readOnlySnapshot();
+        List<String> list = new ArrayList<>();
+        INode in = snapshot.findNode(p);
+        if (in != null) snapshot.findWords(in, new StringBuilder(p), list);
+        return list;
+    }
+
+    //Checks if a word contains words under this @prefix
+    public boolean containsPrefix(CharSequence prefix){
+        this.validateWord(prefix);
+        INode in = this.findNode(this.normalizer.normalize(prefix));
+        return in != null && this.hasWord(in);
+    }
+
+    public boolean containsExact(CharSequence word){
+        this.validateWord(word);
+        String w = this.normalizer.normalize(word);
+        Object res;
+        do {
+            INode r = this.readRoot(false);
+            res = this.lookup(r, w, r.gen);
+        } while (res == RESTART);
+
+        return (Boolean) res;
+    }
+
+    public int size(){
+        return this.size.get();
+    }
+
+    public Trie copy(){
+        return this.snapshot();
+    }
+
+    //Freezes a read only snapshot, so writers are never blocked
+    public Trie freeze(){
+        LockFreeTrie snapshot = this.readOnlySnapshot();
+        List<String> words = new ArrayList<>();
+        snapshot.findWords(snapshot.readRoot(false), new StringBuilder(), words);
+        return FrozenTrie.ofSorted(words, this.normalizer);
+    }
+
+    //An O(1) writable snapshot, this trie and the snapshot share nodes until either side writes to them
+    public LockFreeTrie snapshot(){
+        while (true){
+            INode r = this.readRoot(false);
+            MainNode expected = this.gcasRead(r);
+            if (this.rdcssRoot(r, expected, r.copyToGen(new Gen(), this))) {
+                return new LockFreeTrie(r.copyToGen(new Gen(), this), this.size.get(), false, this.normalizer);
+            }
+        }
+    }
+
+    //An O(1) read only snapshot, add and remove throw on it
+    public LockFreeTrie readOnlySnapshot(){
+        if (this.readOnly) return this;
+        while (true){
+            INode r = this.readRoot(false);
+            MainNode expected = this.gcasRead(r);
+            if (this.rdcssRoot(r, expected, r.copyToGen(new Gen(), this))) return new LockFreeTrie(r, this.size.get(), true, this.normalizer);
+        }
+    }
+
+
+    //Helpers
+
+    Object lookup(INode in, String word, Gen startGen){
+        for (int idx = 0; ; ){
+            MainNode m = this.gcasRead(in);
+            if (!(m instanceof CNode cn)) return false; //A tombed node holds no words
+            if (idx == word.length()) return cn.wordEnd;
+            INode child = cn.get(word.charAt(idx));
+            if (child == null) return false;
+            if (this.readOnly || child.gen == startGen) {
+                in = child;
+                ++idx;
+            } else if (!this.gcas(in, cn, cn.renewed(startGen, this))) return RESTART; //Copy the stale node into our generation and look at it again
+        }
+    }
+
+    Object insert(INode root, String word, Gen startGen){
+        INode in = root, parent = null;
+        for (int idx = 0; ; ){
+            MainNode m = this.gcasRead(in);
+            if (!(m instanceof CNode cn)) { //Tombed, help clean it out of its parent then try again
+                this.clean(parent, parent == root, startGen);
+                return RESTART;
+            }
+
+            if (idx == word.length()){
+                if (cn.wordEnd) return false;
+                return this.gcas(in, cn, cn.withWordEnd(true)) ? Boolean.TRUE : RESTART;
+            }
+
+            char c = word.charAt(idx);
+            int pos = cn.indexOf(c);
+            if (pos < 0) return this.gcas(in, cn, cn.inserted(pos, c, this.newBranch(word, idx, startGen))) ? Boolean.TRUE : RESTART;
+
+            INode child = cn.children[pos];
+            if (child.gen == startGen) {
+                parent = in;
+                in = child;
+                ++idx;
+            } else if (!this.gcas(in, cn, cn.renewed(startGen, this))) return RESTART;
+        }
+    }
+
+    //Recursive, since emptied nodes are tombed and cleaned out of their parents on the way back up
+    Object remove(INode root, INode in, INode parent, String word, int idx, Gen startGen){
+        MainNode m = this.gcasRead(in);
+        if (!(m instanceof CNode cn)) {
+            this.clean(parent, parent == root, startGen);
+            return RESTART;
+        }
+
+        if (idx == word.length()){
+            if (!cn.wordEnd) return false;
+            return this.gcas(in, cn, this.compress(cn.withWordEnd(false), in == root)) ? Boolean.TRUE : RESTART; //Tombed if this was a leaf
+        }
+
+        char c = word.charAt(idx);
+        INode child = cn.get(c);
+        if (child == null) return false;
+        if (child.gen != startGen) {
+            if (this.gcas(in, cn, cn.renewed(startGen, this))) return this.remove(root, in, parent, word, idx, startGen);
+            return RESTART;
+        }
+
+        Object res = this.remove(root, child, in, word, idx + 1, startGen);
+        if (res == Boolean.TRUE) this.cleanParent(in, in == root, child, c, startGen);
+        return res;
+    }
+
+    //Drops the tombed @child from @in, retrying until it's gone or a snapshot moved the trie on to a new generation
+    void cleanParent(INode in, boolean isRoot, INode child, char c, Gen startGen){
+        while (true){
+            if (!(this.gcasRead(child) instanceof TNode)) return;
+            if (!(this.gcasRead(in) instanceof CNode cn) || cn.get(c) != child) return; //Someone else already cleaned it
+            if (this.gcas(in, cn, this.compress(cn, isRoot))) return;
+            if (this.readRoot(false).gen != startGen) return;
+        }
+    }
+
+    //Drops every tombed child of @in, a tomb left behind by a failed clean is harmless since readers treat it as empty
+    void clean(INode in, boolean isRoot, Gen startGen){
+        if (in != null && in.gen == startGen && this.gcasRead(in) instanceof CNode cn) this.gcas(in, cn, this.compress(cn, isRoot));
+    }
+
+    //A copy of @cn without tombed children, tombed itself if that leaves a non root node without children or a word
+    MainNode compress(CNode cn, boolean isRoot){
+        int live = 0;
+        char[] keys = new char[cn.keys.length];
+        INode[] children = new INode[cn.children.length];
+        for (int i = 0; i < cn.children.length; i++){
+            if (this.gcasRead(cn.children[i]) instanceof TNode) continue;
+            keys[live] = cn.keys[i];
+            children[live++] = cn.children[i];
+        }
+
+        if (live == 0 && !cn.wordEnd && !isRoot) return new TNode();
+        return new CNode(Arrays.copyOf(keys, live), Arrays.copyOf(children, live), cn.wordEnd);
+    }
+
+    //Builds the chain of nodes for the rest of the word, returns the node for the char at @idx
+    INode newBranch(String word, int idx, Gen gen){
+        INode node = new INode(new CNode(true), gen);
+        for (int i = word.length() - 1; i > idx; i--){
+            node = new INode(new CNode(word.charAt(i), node), gen);
+        }
+
+        return node;
+    }
+
+    //Returns the INode at the end of this word's path, or null if the path doesn't exist
+    INode findNode(String word){
+        INode in = this.readRoot(false);
+        for (int i = 0; i < word.length(); i++){
+            if (!(this.gcasRead(in) instanceof CNode cn)) return null;
+            in = cn.get(word.charAt(i));
+            if (in == null) return null;
+        }
+
+        return in;
+    }
+
+    void findWords(INode in, StringBuilder path, List<String> words){
+        if (!(this.gcasRead(in) instanceof CNode cn)) return;
+        if (cn.wordEnd) words.add(path.toString());
+        for (int i = 0; i < cn.children.length; i++){
+            path.append(cn.keys[i]);
+            this.findWords(cn.children[i], path, words);
+            path.setLength(path.length() - 1);
+        }
+    }
+
+    boolean hasWord(INode in){
+        if (!(this.gcasRead(in) instanceof CNode cn)) return false;
+        if (cn.wordEnd) return true;
+        for (INode child : cn.children){
+            if (this.hasWord(child)) return true;
+        }
+
+        return false;
+    }
+
+    //GCAS, a CAS on an INode's main node that only commits if the root's generation is still the INode's generation
+    //The new node points back at the old one (prev) until the commit is decided, readers that see a pending prev help decide it first
+    boolean gcas(INode in, MainNode old, MainNode n){
+        n.prev = old;
+        if (MAIN.compareAndSet(in, old, n)){
+            this.gcasComplete(in, n);
+            return n.prev == null;
+        }
+
+        return false;
+    }
+
+    MainNode gcasRead(INode in){
+        MainNode m = in.main;
+        if (m.prev == null) return m;
+        return this.gcasComplete(in, m);
+    }
+
+    MainNode gcasComplete(INode in, MainNode m){
+        while (true){
+            MainNode prev = m.prev;
+            INode ctr = this.readRoot(true);
+            if (prev == null) return m;
+
+            if (prev instanceof FailedNode fn){ //The commit failed, roll back to the old node
+                if (MAIN.compareAndSet(in, m, fn.prev)) return fn.prev;
+                m = in.main;
+                continue;
+            }
+
+            if (ctr.gen == in.gen && !this.readOnly){
+                if (PREV.compareAndSet(m, prev, null)) return m; //Committed
+            } else {
+                PREV.compareAndSet(m, prev, new FailedNode(prev)); //A snapshot was taken mid CAS, fail it
+                m = in.main;
+            }
+        }
+    }
+
+    INode readRoot(boolean abort){
+        Object r = this.root.get();
+        if (r instanceof INode in) return in;
+        return this.rdcssComplete(abort);
+    }
+
+    //RDCSS, swaps the root only if the old root's main node is still @expected
+    boolean rdcssRoot(INode old, MainNode expected, INode nv){
+        RdcssDescriptor desc = new RdcssDescriptor(old, expected, nv);
+        if (this.root.compareAndSet(old, desc)){
+            this.rdcssComplete(false);
+            return desc.committed;
+        }
+
+        return false;
+    }
+
+    INode rdcssComplete(boolean abort){
+        while (true){
+            Object v = this.root.get();
+            if (v instanceof INode in) return in;
+            RdcssDescriptor desc = (RdcssDescriptor) v;
+            if (abort){
+                if (this.root.compareAndSet(desc, desc.old)) return desc.old;
+                continue;
+            }
+
+            if (this.gcasRead(desc.old) == desc.expected){
+                if (this.root.compareAndSet(desc, desc.nv)){
+                    desc.committed = true;
+                    return desc.nv;
+                }
+            } else if (this.root.compareAndSet(desc, desc.old)) return desc.old;
+        }
+    }
+
+    void verifyWritable(){
+        if (this.readOnly) throw new UnsupportedOperationException("Read only snapshot");
+    }
+
+    void validateWord(CharSequence s){
+        if (s == null || s.isEmpty()) throw new IllegalArgumentException("word != null && word != \"\"");
+    }
+
+    //Identity only, a new one is made per snapshot
+    static final class Gen {}
+
+    static final class INode {
+        volatile MainNode main;
+        final Gen gen;
+
+        INode(MainNode main, Gen gen) {
+            this.main = main;
+            this.gen = gen;
+        }
+
+        INode copyToGen(Gen gen, LockFreeTrie trie){
+            return new INode(trie.gcasRead(this), gen);
+        }
+    }
+
+    abstract static class MainNode {
+        volatile MainNode prev;
+    }
+
+    //A node's children sorted by key, immutable once published
+    static final class CNode extends MainNode {
+        private final static char[] NO_KEYS = {};
+        private final static INode[] NO_CHILDREN = {};
+        final char[] keys;
+        final INode[] children;
+        final boolean wordEnd;
+
+        CNode(char[] keys, INode[] children, boolean wordEnd) {
+            this.keys = keys;
+            this.children = children;
+            this.wordEnd = wordEnd;
+        }
+
+        CNode(boolean wordEnd) {
+            this(NO_KEYS, NO_CHILDREN, wordEnd);
+        }
+
+        CNode(char c, INode child) {
+            this(new char[]{c}, new INode[]{child}, false);
+        }
+
+        int indexOf(char c){
+            return Arrays.binarySearch(this.keys, c);
+        }
+
+        INode get(char c){
+            int pos = this.indexOf(c);
+            return pos >= 0 ? this.children[pos] : null;
+        }
+
+        //@pos is the negative insertion point from indexOf
+        CNode inserted(int pos, char c, INode child){
+            int at = -(pos + 1);
+            int len = this.keys.length;
+            char[] keys = new char[len + 1];
+            INode[] children = new INode[len + 1];
+            System.arraycopy(this.keys, 0, keys, 0, at);
+            System.arraycopy(this.children, 0, children, 0, at);
+            keys[at] = c;
+            children[at] = child;
+            System.arraycopy(this.keys, at, keys, at + 1, len - at);
+            System.arraycopy(this.children, at, children, at + 1, len - at);
+            return new CNode(keys, children, this.wordEnd);
+        }
+
+        CNode withWordEnd(boolean wordEnd){
+            return new CNode(this.keys, this.children, wordEnd);
+        }
+
+        //Copies every child into @gen so writes below this node don't leak into a snapshot still sharing them
+        CNode renewed(Gen gen, LockFreeTrie trie){
+            INode[] children = new INode[this.children.length];
+            for (int i = 0; i < children.length; i++) children[i] = this.children[i].copyToGen(gen, trie);
+            return new CNode(this.keys, children, this.wordEnd);
+        }
+    }
+
+    //A dead node, no children and no word
+    static final class TNode extends MainNode {}
+
+    static final class FailedNode extends MainNode {
+        FailedNode(MainNode prev) {
+            this.prev = prev;
+        }
+    }
+
+    static final class RdcssDescriptor {
+        final INode old;
+        final MainNode expected;
+        final INode nv;
+        volatile boolean committed;
+
+        RdcssDescriptor(INode old, MainNode expected, INode nv) {
+            this.old = old;
+            this.expected = expected;
+            this.nv = nv;
+        }
+    }
+}
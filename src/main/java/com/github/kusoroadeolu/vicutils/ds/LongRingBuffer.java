@@ -0,0 +1,200 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+// A ring buffer of longs for rolling windows, e.g. latency samples in nanos, nothing is boxed and none of the window ops allocate
+/*Invariants
+* Same overwrite the oldest semantics as RingBuffer, but reads are by logical position, index 0 is the oldest element and size() - 1 the newest
+* @pos is the slot the next add writes, once the buffer has filled that's also the oldest element's slot
+* @scratch is only touched by percentile, under the write lock, so percentile never allocates either
+* */
+public class LongRingBuffer {
+    private final long[] buf;
+    private final long[] scratch;
+    private final int cap;
+    private int pos;
+    private int size;
+    private final ReentrantReadWriteLock rwLock;
+    private final Lock rLock;
+    private final Lock wLock;
+
+    public LongRingBuffer(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity < 1");
+        this.cap = capacity;
+        this.buf = new long[cap];
+        this.scratch = new long[cap];
+        this.rwLock = new ReentrantReadWriteLock();
+        this.rLock = rwLock.readLock();
+        this.wLock = rwLock.writeLock();
+    }
+
+    /**
+     * Add an element and overwrite the oldest element if the buffer is full
+     * @param val The value to add
+     * @return True if the buffer was full and its oldest element was overwritten. A flag rather than the old value, any value, 0 included, is a real sample
+     * */
+    public boolean add(long val){
+        wLock.lock();
+        try {
+            this.buf[pos] = val;
+            if (++pos == cap) pos = 0;
+            if (size < cap) {
+                ++size;
+                return false;
+            }
+            return true;
+        }finally {
+            wLock.unlock();
+        }
+    }
+
+    //The @index-th oldest element
+    public long get(int index){
+        rLock.lock();
+        try {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index >= " + size);
+            return this.buf[this.slot(index)];
+        }finally {
+            rLock.unlock();
+        }
+    }
+
+    //The oldest element
+    public long head(){
+        return this.get(0);
+    }
+
+    //The newest element
+    public long getLast(){
+        rLock.lock();
+        try {
+            if (size == 0) throw new NoSuchElementException("buffer is empty");
+            return this.buf[this.slot(size - 1)];
+        }finally {
+            rLock.unlock();
+        }
+    }
+
+    public int capacity(){
+        return this.cap;
+    }
+
+    //How many elements are in the window, at most the capacity
+    public int size(){
+        rLock.lock();
+        try {
+            return this.size;
+        }finally {
+            rLock.unlock();
+        }
+    }
+
+    public long sum(){
+        rLock.lock();
+        try {
+            long sum = 0;
+            for (int i = 0; i < size; i++) sum += this.buf[i]; //Until the buffer fills the elements are the first @size slots, after it's every slot, order doesn't matter for a sum
+            return sum;
+        }finally {
+            rLock.unlock();
+        }
+    }
+
+    public long min(){
+        rLock.lock();
+        try {
+            if (size == 0) throw new NoSuchElementException("buffer is empty");
+            long min = this.buf[0];
+            for (int i = 1; i < size; i++) min = Math.min(min, this.buf[i]);
+            return min;
+        }finally {
+            rLock.unlock();
+        }
+    }
+
+    public long max(){
+        rLock.lock();
+        try {
+            if (size == 0) throw new NoSuchElementException("buffer is empty");
+            long max = this.buf[0];
+            for (int i = 1; i < size; i++) max = Math.max(max, this.buf[i]);
+            return max;
+        }finally {
+            rLock.unlock();
+        }
+    }
+
+    //The nearest rank @percentile (0 to 100) of the window, found by quickselect on a scratch copy in O(size) on average
+    //Takes the write lock since the scratch array is shared, use sparingly on a hot buffer
+    public long percentile(double percentile){
+        if (!(percentile >= 0 && percentile <= 100)) throw new IllegalArgumentException("percentile < 0 || percentile > 100");
+        wLock.lock();
+        try {
+            if (size == 0) throw new NoSuchElementException("buffer is empty");
+            System.arraycopy(this.buf, 0, this.scratch, 0, size);
+            int rank = (int) Math.ceil(percentile / 100 * size);
+            return select(this.scratch, size, Math.max(rank - 1, 0));
+        }finally {
+            wLock.unlock();
+        }
+    }
+
+    //Oldest to newest, under the read lock
+    public void forEach(LongConsumer action){
+        rLock.lock();
+        try {
+            for (int i = 0; i < size; i++) action.accept(this.buf[this.slot(i)]);
+        }finally {
+            rLock.unlock();
+        }
+    }
+
+    //Oldest to newest
+    public long[] toArray(){
+        rLock.lock();
+        try {
+            long[] arr = new long[size];
+            for (int i = 0; i < size; i++) arr[i] = this.buf[this.slot(i)];
+            return arr;
+        }finally {
+            rLock.unlock();
+        }
+    }
+
+
+    //Helpers
+
+    //The slot of the @index-th oldest element
+    int slot(int index){
+        int start = size < cap ? 0 : pos;
+        int slot = start + index;
+        return slot >= cap ? slot - cap : slot;
+    }
+
+    //The @k-th smallest of arr[0, n), reorders arr
+    static long select(long[] arr, int n, int k){
+        int lo = 0, hi = n - 1;
+        while (lo < hi){
+            long pivot = arr[(lo + hi) >>> 1];
+            int i = lo, j = hi;
+            while (i <= j){
+                while (arr[i] < pivot) i++;
+                while (arr[j] > pivot) j--;
+                if (i <= j){
+                    long t = arr[i];
+                    arr[i++] = arr[j];
+                    arr[j--] = t;
+                }
+            }
+
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else return arr[k];
+        }
+
+        return arr[k];
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+
+// A frozen trie read straight out of a memory mapped file, nothing is deserialized on open, it only checks the child offsets in one pass
+// and every JVM that maps the same file shares the one copy in the page cache
+/*File layout, little endian
+* int magic, int version, int node count n, int word count, int normalizer (the index of a built in one in NORMALIZERS, -1 for a custom one)
+* int[n + 1] first child offsets, char[n] labels, long[(n + 63) / 64] word end bits
+* These are the same arrays a FrozenTrie holds, see LevelOrderTrie for what they mean
+*
+* Invariants
+* The file is only ever replaced whole, write goes through a temp file and an atomic move, so a reader never maps a half written trie. A failed write deletes its temp file
+* An opened file's child offsets start at 1, never decrease, stay ahead of their node and end at n, so every walk stays inside the arrays and terminates
+* Reads after close throw IllegalStateException
+* */
+public final class MappedTrie extends LevelOrderTrie implements AutoCloseable {
+    private final static int MAGIC = 0x56545249; //"VTRI"
+    private final static int VERSION = 2;
+    private final static long HEADER = 20;
+    private final static List<KeyNormalizer> NORMALIZERS = List.of(KeyNormalizer.LOWER_CASE, KeyNormalizer.IDENTITY, KeyNormalizer.CASE_FOLD); //Only ever appended to, the index is in the file
+    private final static ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private final static ValueLayout.OfChar CHAR = ValueLayout.JAVA_CHAR_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private final static ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final int nodes;
+    private final int size;
+    private final KeyNormalizer normalizer;
+    private final long labelsOffset;
+    private final long wordsOffset;
+
+    private MappedTrie(Arena arena, MemorySegment segment, int nodes, int size, KeyNormalizer normalizer) {
+        this.arena = arena;
+        this.segment = segment;
+        this.nodes = nodes;
+        this.size = size;
+        this.normalizer = normalizer;
+        this.labelsOffset = HEADER + 4L * (nodes + 1);
+        this.wordsOffset = this.labelsOffset + 2L * nodes;
+    }
+
+    //Maps the file, the mapping stays valid until close. Keys are normalized with the built in normalizer the file was written with
+    public static MappedTrie open(Path file) throws IOException {
+        return open(file, null);
+    }
+
+    //For files written from a trie with a custom normalizer, which has to be the same one, a null @normalizer uses the file's built in one
+    public static MappedTrie open(Path file, KeyNormalizer normalizer) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            if (segment.byteSize() < HEADER || segment.get(INT, 0) != MAGIC) throw new IOException("Not a trie file: " + file);
+            if (segment.get(INT, 4) != VERSION) throw new IOException("Unsupported trie file version: " + segment.get(INT, 4));
+            int nodes = segment.get(INT, 8);
+            if (nodes < 1 || segment.byteSize() != fileSize(nodes)) throw new IOException("Truncated trie file: " + file);
+            int size = segment.get(INT, 12);
+            if (size < 0 || size >= nodes || !validOffsets(segment, nodes)) throw new IOException("Corrupt trie file: " + file);
+            int id = segment.get(INT, 16);
+            if (normalizer == null) {
+                if (id < 0 || id >= NORMALIZERS.size()) throw new IOException("Trie file was written with a custom normalizer, open it with that normalizer: " + file);
+                normalizer = NORMALIZERS.get(id);
+            }
+
+            return new MappedTrie(arena, segment, nodes, size, normalizer);
+        }catch (IOException | RuntimeException e){
+            arena.close();
+            throw e;
+        }
+    }
+
+    //Freezes the trie and writes it to this file, replacing whatever was there
+    public static void write(Trie trie, Path file) throws IOException {
+        if (!(trie.freeze() instanceof LevelOrderTrie frozen)) throw new IllegalArgumentException("Trie doesn't freeze to a level order trie");
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            writeTo(frozen, tmp);
+            Files.move(tmp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        }catch (IOException | RuntimeException e){
+            try {
+                Files.deleteIfExists(tmp); //Unmapped by now, the arena was closed with the channel
+            }catch (IOException suppressed){
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    public int size(){
+        return this.size;
+    }
+
+    //Unmaps the file, no reads may be in flight or follow
+    public void close(){
+        this.arena.close();
+    }
+
+    char label(int node){
+        return this.segment.get(CHAR, this.labelsOffset + 2L * node);
+    }
+
+    int firstChild(int node){
+        return this.segment.get(INT, HEADER + 4L * node);
+    }
+
+    boolean isWord(int node){
+        return (this.segment.get(LONG, this.wordsOffset + 8L * (node >>> 6)) & (1L << node)) != 0;
+    }
+
+    int nodes(){
+        return this.nodes;
+    }
+
+    KeyNormalizer normalizer(){
+        return this.normalizer;
+    }
+
+
+    //Helpers
+
+    //Writes @frozen to @tmp, the caller moves it into place
+    static void writeTo(LevelOrderTrie frozen, Path tmp) throws IOException {
+        int n = frozen.nodes();
+        try (FileChannel channel = FileChannel.open(tmp, CREATE, TRUNCATE_EXISTING, READ, WRITE); Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(n), arena);
+            segment.set(INT, 0, MAGIC);
+            segment.set(INT, 4, VERSION);
+            segment.set(INT, 8, n);
+            segment.set(INT, 12, frozen.size());
+            segment.set(INT, 16, NORMALIZERS.indexOf(frozen.normalizer())); //Identity compared, lambdas don't override equals
+
+            long offset = HEADER;
+            for (int i = 0; i <= n; i++, offset += 4) segment.set(INT, offset, frozen.firstChild(i));
+            for (int i = 0; i < n; i++, offset += 2) segment.set(CHAR, offset, frozen.label(i));
+            for (int i = 0; i < n; i += 64, offset += 8){
+                long bits = 0;
+                for (int j = i; j < Math.min(i + 64, n); j++){
+                    if (frozen.isWord(j)) bits |= 1L << j;
+                }
+                segment.set(LONG, offset, bits);
+            }
+
+            segment.force();
+        }
+    }
+
+    //Checks the int[n + 1] child offsets, in one pass over the mapping
+    static boolean validOffsets(MemorySegment segment, int nodes){
+        if (segment.get(INT, HEADER) != 1 || segment.get(INT, HEADER + 4L * nodes) != nodes) return false;
+        int prev = 1;
+        for (int i = 1; i < nodes; i++){
+            int first = segment.get(INT, HEADER + 4L * i);
+            if (first < prev || first <= i || first > nodes) return false; //Children are numbered after their parent, in the parents' order
+            prev = first;
+        }
+
+        return true;
+    }
+
+    static long fileSize(int nodes){
+        return HEADER + 4L * (nodes + 1) + 2L * nodes + 8L * ((nodes + 63) >>> 6);
+    }
+}
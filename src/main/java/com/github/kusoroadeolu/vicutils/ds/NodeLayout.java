@@ -0,0 +1,23 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// How a trie node stores its children
+public enum NodeLayout {
+    //A HashMap per node, fast on wide nodes, but each node pays for the map, its table and a boxed entry per child
+    HASHED {
+        Map<Character, Trie.Node> newChildren() {
+            return new HashMap<>();
+        }
+    },
+
+    //Sorted char keys with a parallel array of children, a fraction of the memory of HASHED for the narrow nodes that make up most of a trie
+    COMPACT {
+        Map<Character, Trie.Node> newChildren() {
+            return new CompactNodeMap();
+        }
+    };
+
+    abstract Map<Character, Trie.Node> newChildren();
+}
@@ -0,0 +1,264 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardOpenOption.*;
+
+// A ring buffer of fixed width records kept off heap in one MemorySegment, so a ring of millions of records is one allocation the GC never scans
+// Optionally backed by a memory mapped file, which keeps the ring across restarts and crashes of the JVM
+/*Segment layout, little endian
+* int magic, int record size, int capacity, int stride, long sequence (how many records were ever added), long start (the sequence of the oldest record), then padding up to HEADER
+* capacity records, each @stride bytes, the record size rounded up to the layout's alignment
+*
+* Invariants
+* Record s lives in slot s % capacity, reads are by logical position like the primitive ring buffers, index 0 is the oldest record, the one at @start
+* The records counted are [start, sequence). Once full, start is bumped past the oldest record before its slot is overwritten, the record is written, then the sequence is bumped
+* so the JVM dying mid add never leaves a half written record counted, not the new one and not the oldest one it was overwriting. A record whose writer throws isn't added, though a full ring has already dropped its oldest
+* Segments handed out by get, head and getLast are views of the slot, not copies, they read whatever is in the slot when they're read. Use copyTo for a stable copy
+* Reads and writes after close throw IllegalStateException
+* */
+public class OffHeapRingBuffer implements Iterable<MemorySegment>, AutoCloseable {
+    private final static int MAGIC = 0x56524e47; //"VRNG"
+    private final static long HEADER = 64; //Keeps the records cache line aligned
+    private final static long SEQUENCE = 16;
+    private final static long START = 24;
+    private final static ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private final static ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final MemoryLayout layout;
+    private final long stride;
+    private final int cap;
+    private final boolean mapped;
+    private long sequence;
+    private long start;
+    private final ReentrantReadWriteLock rwLock;
+    private final Lock rLock;
+    private final Lock wLock;
+
+    private OffHeapRingBuffer(Arena arena, MemorySegment segment, MemoryLayout layout, int capacity, boolean mapped) {
+        this.arena = arena;
+        this.segment = segment;
+        this.layout = layout;
+        this.stride = stride(layout);
+        this.cap = capacity;
+        this.mapped = mapped;
+        this.sequence = segment.get(LONG, SEQUENCE);
+        this.start = segment.get(LONG, START);
+        this.rwLock = new ReentrantReadWriteLock();
+        this.rLock = rwLock.readLock();
+        this.wLock = rwLock.writeLock();
+    }
+
+    //A ring in memory, freed on close
+    public OffHeapRingBuffer(MemoryLayout layout, int capacity) {
+        this(Arena.ofShared(), layout, capacity);
+    }
+
+    private OffHeapRingBuffer(Arena arena, MemoryLayout layout, int capacity) {
+        this(arena, header(arena.allocate(segmentSize(layout, capacity), HEADER), layout, capacity), layout, capacity, false);
+    }
+
+    //A ring in this file, created if it doesn't exist. An existing file carries on from the records it holds, it must have been made with the same record size, alignment and capacity
+    //An existing file is checked before it's mapped, so a file that doesn't match is left as it was
+    public static OffHeapRingBuffer mapped(Path file, MemoryLayout layout, int capacity) throws IOException {
+        long size = segmentSize(layout, capacity);
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file, CREATE, READ, WRITE)) {
+            boolean existing = channel.size() != 0;
+            if (existing) checkHeader(channel, file, layout, capacity, size);
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena); //Grows a new file to @size, an existing one is already that size
+            if (!existing) header(segment, layout, capacity);
+            return new OffHeapRingBuffer(arena, segment, layout, capacity, true);
+        }catch (IOException | RuntimeException e){
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Add a record, overwriting the oldest record if the buffer is full
+     * @param record The record to copy in, at least the layout's size
+     * @return The record's sequence, how many records were added before it
+     * */
+    public long add(MemorySegment record){
+        if (record.byteSize() < this.layout.byteSize()) throw new IllegalArgumentException("record.byteSize() < " + this.layout.byteSize());
+        return this.add(slot -> MemorySegment.copy(record, 0, slot, 0, this.layout.byteSize()));
+    }
+
+    //Adds a record written in place by @writer, so nothing is copied. @writer mustn't keep the slot, it's overwritten a lap later
+    public long add(Consumer<MemorySegment> writer){
+        wLock.lock();
+        try {
+            long seq = this.sequence;
+            if (seq - this.start == this.cap) { //Full, the oldest record stops being counted before its slot is overwritten
+                this.start = seq - this.cap + 1;
+                this.segment.set(LONG, START, this.start);
+                VarHandle.storeStoreFence();
+            }
+
+            writer.accept(this.slot(seq));
+            VarHandle.storeStoreFence(); //Only after the record, see the invariants
+            this.segment.set(LONG, SEQUENCE, seq + 1);
+            this.sequence = seq + 1;
+            return seq;
+        }finally {
+            wLock.unlock();
+        }
+    }
+
+    //A view of the @index-th oldest record
+    public MemorySegment get(int index){
+        rLock.lock();
+        try {
+            return this.slot(this.sequenceOf(index));
+        }finally {
+            rLock.unlock();
+        }
+    }
+
+    //Copies the @index-th oldest record into @dst under the read lock, so it's never torn by a concurrent add
+    public void copyTo(int index, MemorySegment dst){
+        rLock.lock();
+        try {
+            MemorySegment.copy(this.slot(this.sequenceOf(index)), 0, dst, 0, this.layout.byteSize());
+        }finally {
+            rLock.unlock();
+        }
+    }
+
+    //A view of the oldest record, or null if the buffer is empty
+    public MemorySegment head(){
+        rLock.lock();
+        try {
+            return this.sequence == this.start ? null : this.slot(this.start);
+        }finally {
+            rLock.unlock();
+        }
+    }
+
+    //A view of the newest record, or null if the buffer is empty
+    public MemorySegment getLast(){
+        rLock.lock();
+        try {
+            return this.sequence == this.start ? null : this.slot(this.sequence - 1);
+        }finally {
+            rLock.unlock();
+        }
+    }
+
+    public int capacity(){
+        return this.cap;
+    }
+
+    //How many records are in the buffer, at most the capacity
+    public int size(){
+        rLock.lock();
+        try {
+            return (int) (this.sequence - this.start);
+        }finally {
+            rLock.unlock();
+        }
+    }
+
+    //Writes a mapped ring's records out to the file, a no op for a ring in memory
+    public void force(){
+        if (this.mapped) this.segment.force();
+    }
+
+    //Frees or unmaps the segment, no reads or writes may be in flight or follow. A mapped ring isn't forced first
+    public void close(){
+        this.arena.close();
+    }
+
+    //Weakly consistent, views of the records oldest to newest as of the call
+    public Iterator<MemorySegment> iterator(){
+        long start, end;
+        rLock.lock();
+        try {
+            start = this.start;
+            end = this.sequence;
+        }finally {
+            rLock.unlock();
+        }
+
+        return new Iterator<>() {
+            private long seq = start;
+
+            public boolean hasNext() {
+                return this.seq < end;
+            }
+
+            public MemorySegment next() {
+                if (!this.hasNext()) throw new NoSuchElementException();
+                return slot(this.seq++);
+            }
+        };
+    }
+
+
+    //Helpers
+
+    MemorySegment slot(long seq){
+        return this.segment.asSlice(HEADER + (seq % this.cap) * this.stride, this.layout.byteSize());
+    }
+
+    //The sequence of the @index-th oldest record, called under a lock
+    long sequenceOf(int index){
+        int size = (int) (this.sequence - this.start);
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index >= " + size);
+        return this.start + index;
+    }
+
+    static long stride(MemoryLayout layout){
+        long align = layout.byteAlignment();
+        return (layout.byteSize() + align - 1) / align * align;
+    }
+
+    static long segmentSize(MemoryLayout layout, int capacity){
+        if (capacity < 1) throw new IllegalArgumentException("capacity < 1");
+        if (layout.byteSize() < 1) throw new IllegalArgumentException("layout.byteSize() < 1");
+        if (layout.byteSize() > Integer.MAX_VALUE) throw new IllegalArgumentException("layout.byteSize() > Integer.MAX_VALUE");
+        return HEADER + stride(layout) * capacity;
+    }
+
+    static MemorySegment header(MemorySegment segment, MemoryLayout layout, int capacity){
+        segment.set(INT, 0, MAGIC);
+        segment.set(INT, 4, (int) layout.byteSize());
+        segment.set(INT, 8, capacity);
+        segment.set(INT, 12, (int) stride(layout));
+        segment.set(LONG, SEQUENCE, 0);
+        segment.set(LONG, START, 0);
+        return segment;
+    }
+
+    //Reads an existing file's header through the channel, nothing is mapped until it matches
+    static void checkHeader(FileChannel channel, Path file, MemoryLayout layout, int capacity, long size) throws IOException {
+        IOException mismatch = new IOException("Not a ring buffer file of this record size, alignment and capacity: " + file);
+        if (channel.size() != size) throw mismatch;
+        ByteBuffer header = ByteBuffer.allocate((int) HEADER).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) throw mismatch;
+        }
+
+        long seq = header.getLong((int) SEQUENCE), start = header.getLong((int) START);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != layout.byteSize() || header.getInt(8) != capacity
+                || header.getInt(12) != stride(layout) || start < 0 || start > seq || seq - start > capacity) {
+            throw mismatch;
+        }
+    }
+}
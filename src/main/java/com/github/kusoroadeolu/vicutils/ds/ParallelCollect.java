@@ -0,0 +1,69 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+// Collects every word under a node on a fork join pool, splitting the subtree at its children
+/*Invariants
+* Every node's word count is exact, so the words under a node fill exactly node.wordCount() slots and each child is handed its own range of @out up front.
+* Tasks never share a slot, so nothing is merged or synchronized, the pool's join is the only handoff
+* A subtree with at most THRESHOLD words is walked on the one thread, below that forking costs more than it saves
+* The caller keeps the subtree from being written until the task is done, e.g. by holding its read lock
+* */
+@SuppressWarnings("serial") //A fork join task is never serialized, and the nodes it walks aren't serializable
+final class ParallelCollect extends RecursiveAction {
+    final static int THRESHOLD = 4096;
+    private final Trie.Node node;
+    private final String path; //The chars up to and including @node's
+    private final String[] out;
+    private final int offset;
+
+    ParallelCollect(Trie.Node node, String path, String[] out, int offset) {
+        this.node = node;
+        this.path = path;
+        this.out = out;
+        this.offset = offset;
+    }
+
+    //Every word under @node, in the same order startsWith gives them
+    static String[] collect(Trie.Node node, String path){
+        String[] out = new String[node.wordCount()];
+        new ParallelCollect(node, path, out, 0).invoke();
+        return out;
+    }
+
+    protected void compute() {
+        if (this.node.wordCount() <= THRESHOLD) {
+            char[] chars = Arrays.copyOf(this.path.toCharArray(), Math.max(16, this.path.length() * 2));
+            fill(this.node, chars, this.path.length(), this.out, this.offset);
+            return;
+        }
+
+        int i = this.offset;
+        if (this.node.isWordEnd()) this.out[i++] = this.path;
+        List<ParallelCollect> tasks = new ArrayList<>(this.node.children().size());
+        for (Trie.Node child : this.node.children().values()){
+            tasks.add(new ParallelCollect(child, this.path + child.c(), this.out, i));
+            i += child.wordCount();
+        }
+
+        invokeAll(tasks);
+    }
+
+
+    //Helpers
+
+    //@path holds the chars up to and including @node's in [0, len), returns the next free slot
+    static int fill(Trie.Node node, char[] path, int len, String[] out, int i){
+        if (node.isWordEnd()) out[i++] = new String(path, 0, len);
+        if (len == path.length) path = Arrays.copyOf(path, path.length * 2);
+        for (Trie.Node child : node.children().values()){
+            path[len] = child.c();
+            i = fill(child, path, len + 1, out, i);
+        }
+
+        return i;
+    }
+}
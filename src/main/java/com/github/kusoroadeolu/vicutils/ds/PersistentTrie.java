@@ -0,0 +1,240 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+// A persistent trie, nodes never change once published, a write copies the path from the root down to its word and swaps in the new root
+/*Invariants
+* Every node is immutable, so a root read once is a consistent view of the whole trie for as long as it's held. Readers never lock or retry
+* Writers build a new root off the current one and publish it with a single CAS on @root, a writer that loses the race rebuilds off the winner's root
+* A write only copies the nodes on its word's path, everything else is shared with the old root, so snapshot and copy only copy the root reference
+* No node other than the root is both not a word end and childless, remove prunes those on its way back up, so every node below the root leads to a word
+* The size is the root's word count, so unlike the other concurrent tries it's exact for the root it's read from
+* */
+// Writers that keep colliding on the CAS redo their path copy each time, this is built for many readers and a few writers, not many writers
+public class PersistentTrie implements Trie{
+    private final AtomicReference<PNode> root;
+    private final KeyNormalizer normalizer; //Keys are normalized into a String once up front, same as LockFreeTrie
+
+    PersistentTrie(PNode root, KeyNormalizer normalizer) {
+        this.root = new AtomicReference<>(root);
+        this.normalizer = normalizer;
+    }
+
+    public PersistentTrie(KeyNormalizer normalizer) {
+        this(PNode.EMPTY, normalizer);
+    }
+
+    public PersistentTrie() {
+        this(KeyNormalizer.LOWER_CASE);
+    }
+
+    public boolean add(CharSequence word){
+        this.validateWord(word);
+        String w = this.normalizer.normalize(word);
+        while (true){
+            PNode r = this.root.get();
+            if (this.isWord(r, w)) return false;
+            if (this.root.compareAndSet(r, r.insert(w, 0))) return true;
+        }
+    }
+
+    //The whole batch is published with one CAS, so readers see either none of it or all of it
+    public int addAll(Collection<? extends CharSequence> words){
+        List<String> normalized = new ArrayList<>(words.size());
+        for (CharSequence w : words){
+            this.validateWord(w);
+            normalized.add(this.normalizer.normalize(w));
+        }
+
+        while (true){
+            PNode r = this.root.get();
+            PNode next = r;
+            int added = 0;
+            for (String w : normalized){
+                if (this.isWord(next, w)) continue;
+                next = next.insert(w, 0);
+                ++added;
+            }
+
+            if (added == 0 || this.root.compareAndSet(r, next)) return added;
+        }
+    }
+
+    public boolean remove(CharSequence word){
+        this.validateWord(word);
+        String w = this.normalizer.normalize(word);
+        while (true){
+            PNode r = this.root.get();
+            if (!this.isWord(r, w)) return false;
+            PNode next = r.remove(w, 0);
+            if (this.root.compareAndSet(r, next == null ? PNode.EMPTY : next)) return true;
+        }
+    }
+
+    public List<String> startsWith(CharSequence prefix){
+        this.validateWord(prefix);
+        String p = this.normalizer.normalize(prefix);
+        List<String> words = new ArrayList<>();
+        PNode node = this.findNode(this.root.get(), p);
+        if (node == null) return words;
+
+        char[] path = Arrays.copyOf(p.toCharArray(), Math.max(16, p.length() * 2));
+        this.findWords(node, path, p.length(), words);
+        return words;
+    }
+
+    //Every node leads to a word, so reaching one is enough
+    public boolean containsPrefix(CharSequence prefix){
+        this.validateWord(prefix);
+        return this.findNode(this.root.get(), this.normalizer.normalize(prefix)) != null;
+    }
+
+    public int countWithPrefix(CharSequence prefix){
+        this.validateWord(prefix);
+        PNode node = this.findNode(this.root.get(), this.normalizer.normalize(prefix));
+        return node == null ? 0 : node.wordCount;
+    }
+
+    public boolean containsExact(CharSequence word){
+        this.validateWord(word);
+        return this.isWord(this.root.get(), this.normalizer.normalize(word));
+    }
+
+    public int size(){
+        return this.root.get().wordCount;
+    }
+
+    //O(1), the copy starts from the current root and the two tries share every node until either one writes
+    public PersistentTrie snapshot(){
+        return new PersistentTrie(this.root.get(), this.normalizer);
+    }
+
+    public Trie copy(){
+        return this.snapshot();
+    }
+
+    //Children are kept sorted, so the words come out sorted
+    public Trie freeze(){
+        PNode r = this.root.get();
+        List<String> words = new ArrayList<>(r.wordCount);
+        this.findWords(r, new char[16], 0, words);
+        return FrozenTrie.ofSorted(words, this.normalizer);
+    }
+
+
+    //Helpers
+
+    //The node at the end of this normalized word's path under @root, or null if the path doesn't exist
+    PNode findNode(PNode root, String word){
+        PNode node = root;
+        for (int i = 0; node != null && i < word.length(); i++) node = node.child(word.charAt(i));
+        return node;
+    }
+
+    boolean isWord(PNode root, String word){
+        PNode node = this.findNode(root, word);
+        return node != null && node.isWord;
+    }
+
+    //@path holds the chars up to and including @node's in [0, len)
+    void findWords(PNode node, char[] path, int len, List<String> words){
+        if (node.isWord) words.add(new String(path, 0, len));
+        if (len == path.length) path = Arrays.copyOf(path, path.length * 2);
+        for (PNode child : node.children){
+            path[len] = child.c;
+            this.findWords(child, path, len + 1, words);
+        }
+    }
+
+    void validateWord(CharSequence s){
+        if (s == null || s.isEmpty()) throw new IllegalArgumentException("word != null && word != \"\"");
+    }
+
+    //An immutable node, its children are sorted by char and binary searched
+    static final class PNode {
+        private final static PNode[] NO_CHILDREN = {};
+        final static PNode EMPTY = new PNode('\0', false, 0, NO_CHILDREN); //The root of an empty trie
+        final char c;
+        final boolean isWord;
+        final int wordCount; //How many words end in this node's subtree, itself included
+        final PNode[] children;
+
+        PNode(char c, boolean isWord, int wordCount, PNode[] children) {
+            this.c = c;
+            this.isWord = isWord;
+            this.wordCount = wordCount;
+            this.children = children;
+        }
+
+        PNode child(char c){
+            int i = this.indexOf(c);
+            return i < 0 ? null : this.children[i];
+        }
+
+        //A copy of this node with @word added below it, @i is the index of the first char below this node
+        //Only called for words that aren't under this node yet
+        PNode insert(String word, int i){
+            if (i == word.length()) return new PNode(this.c, true, this.wordCount + 1, this.children);
+            char k = word.charAt(i);
+            PNode child = this.child(k);
+            if (child == null) child = new PNode(k, false, 0, NO_CHILDREN);
+            return this.withChild(child.insert(word, i + 1), 1);
+        }
+
+        //A copy of this node with @word removed below it, or null if that leaves it neither a word end nor with children
+        //Only called for words that are under this node
+        PNode remove(String word, int i){
+            if (i == word.length()) return this.children.length == 0 ? null : new PNode(this.c, false, this.wordCount - 1, this.children);
+            char k = word.charAt(i);
+            PNode child = this.child(k).remove(word, i + 1);
+            if (child != null) return this.withChild(child, -1);
+            if (!this.isWord && this.children.length == 1) return null;
+            return this.withoutChild(k);
+        }
+
+        //A copy of this node with @child in place of the child with its char, or added if there isn't one
+        PNode withChild(PNode child, int delta){
+            int i = this.indexOf(child.c);
+            PNode[] children;
+            if (i >= 0) {
+                children = this.children.clone();
+                children[i] = child;
+            } else {
+                i = -(i + 1);
+                children = new PNode[this.children.length + 1];
+                System.arraycopy(this.children, 0, children, 0, i);
+                System.arraycopy(this.children, i, children, i + 1, this.children.length - i);
+                children[i] = child;
+            }
+
+            return new PNode(this.c, this.isWord, this.wordCount + delta, children);
+        }
+
+        //A copy of this node without the child for @k, which had a single word in its subtree
+        PNode withoutChild(char k){
+            int i = this.indexOf(k);
+            PNode[] children = new PNode[this.children.length - 1];
+            System.arraycopy(this.children, 0, children, 0, i);
+            System.arraycopy(this.children, i + 1, children, i, children.length - i);
+            return new PNode(this.c, this.isWord, this.wordCount - 1, children);
+        }
+
+        //The child's index, or -(insertion point + 1) if there's no child for @k
+        int indexOf(char k){
+            int lo = 0, hi = this.children.length - 1;
+            while (lo <= hi){
+                int mid = (lo + hi) >>> 1;
+                char m = this.children[mid].c;
+                if (m < k) lo = mid + 1;
+                else if (m > k) hi = mid - 1;
+                else return mid;
+            }
+
+            return -(lo + 1);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Lock;
+
+/*
+* Lazily walks every word under a node depth first.
+* The path walked so far lives in one reusable char[], so the only allocation per word is the String handed out, and nothing past the words actually consumed is visited
+*
+* With a @lock, each node's children are copied out under the lock as the walk reaches it and the lock is released straight after,
+* so writers are never blocked for longer than one node. This is weakly consistent, a word added or removed mid walk may or may not be seen
+* */
+class PrefixIterator implements Iterator<String> {
+    private final Lock lock;
+    private final int base; //Length of the prefix
+    private char[] path;
+    private final ArrayDeque<Iterator<Trie.Node>> stack; //The unvisited children of each node on the current path, the deepest on top
+    private String next;
+    private boolean expandedWordEnd; //Whether the last node expanded was a word end, read together with its children
+
+    PrefixIterator(String prefix, Trie.Node start, Lock lock) {
+        this.lock = lock;
+        this.base = prefix.length();
+        this.path = Arrays.copyOf(prefix.toCharArray(), Math.max(16, this.base * 2));
+        this.stack = new ArrayDeque<>();
+        this.stack.push(this.expand(start));
+        this.next = this.expandedWordEnd ? prefix : this.advance();
+    }
+
+    public boolean hasNext() {
+        return this.next != null;
+    }
+
+    public String next() {
+        if (this.next == null) throw new NoSuchElementException();
+        String word = this.next;
+        this.next = this.advance();
+        return word;
+    }
+
+    private String advance() {
+        while (!this.stack.isEmpty()) {
+            Iterator<Trie.Node> it = this.stack.peek();
+            if (!it.hasNext()) {
+                this.stack.pop();
+                continue;
+            }
+
+            Trie.Node n = it.next();
+            int len = this.base + this.stack.size(); //Length of the path once n is on it
+            if (len > this.path.length) this.path = Arrays.copyOf(this.path, this.path.length * 2);
+            this.path[len - 1] = n.c();
+            this.stack.push(this.expand(n));
+            if (this.expandedWordEnd) return new String(this.path, 0, len);
+        }
+
+        return null;
+    }
+
+    private Iterator<Trie.Node> expand(Trie.Node n) {
+        if (this.lock == null) {
+            this.expandedWordEnd = n.isWordEnd();
+            return n.children().values().iterator();
+        }
+
+        this.lock.lock();
+        try {
+            this.expandedWordEnd = n.isWordEnd();
+            return Arrays.asList(n.children().values().toArray(Trie.Node[]::new)).iterator();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A path compressed trie, a run of characters without branches is one node rather than a node per character
+/*Invariants
+* Every node's edge label is a slice of a char[] rather than a copy. The slice's array always starts with the path to the node, i.e. chars[0, offset) is the node's prefix.
+* This is what lets a split or a merge just move an offset instead of copying chars
+* No node other than the root has an empty label, and no node other than the root is both not a word end and has a single child, those get merged into their child
+* The arrays labels point into are never written to after the word that made them was inserted, so they can be shared by copies
+* */
+public class RadixTrie implements Trie{
+    final RadixNode root;
+    final KeyNormalizer normalizer;
+    int size;
+
+    RadixTrie(RadixNode root, int size, KeyNormalizer normalizer) {
+        this.root = root;
+        this.size = size;
+        this.normalizer = normalizer;
+    }
+
+    public RadixTrie(KeyNormalizer normalizer) {
+        this(new RadixNode(new char[0], 0, 0, false), 0, normalizer);
+    }
+
+    public RadixTrie() {
+        this(KeyNormalizer.LOWER_CASE);
+    }
+
+    public boolean add(CharSequence word){
+        this.validateWord(word);
+        char[] chars = this.normalizer.normalize(word).toCharArray();
+        RadixNode node = this.root;
+        int i = 0;
+        while (true){
+            RadixNode child = node.child(chars[i]);
+            if (child == null){ //Nothing shares the rest of the word, so it becomes a single leaf
+                node.putChild(new RadixNode(chars, i, chars.length - i, true));
+                ++size;
+                return true;
+            }
+
+            int m = child.commonLength(chars, i);
+            i += m;
+            if (m < child.length) { //The word leaves the edge half way, split it where they part
+                RadixNode mid = child.splitAt(m);
+                node.putChild(mid);
+                if (i == chars.length) mid.wordEnd = true;
+                else mid.putChild(new RadixNode(chars, i, chars.length - i, true));
+                ++size;
+                return true;
+            }
+
+            if (i == chars.length){
+                if (child.wordEnd) return false;
+                child.wordEnd = true;
+                ++size;
+                return true;
+            }
+
+            node = child;
+        }
+    }
+
+    public boolean remove(CharSequence word){
+        this.validateWord(word);
+        String w = this.normalizer.normalize(word);
+        RadixNode grandParent = null, parent = null, node = this.root;
+        int i = 0;
+        while (i < w.length()){
+            RadixNode child = node.child(w.charAt(i));
+            if (child == null || !child.matches(w, i)) return false;
+            i += child.length;
+            grandParent = parent;
+            parent = node;
+            node = child;
+        }
+
+        if (!node.wordEnd) return false;
+        node.wordEnd = false;
+        if (node.childCount == 0) {
+            parent.removeChild(node.firstChar());
+            if (parent != this.root && !parent.wordEnd && parent.childCount == 1) grandParent.putChild(parent.mergeWithChild()); //The parent may now be an unbranched run
+        } else if (node.childCount == 1) parent.putChild(node.mergeWithChild());
+        --size;
+        return true;
+    }
+
+    public List<String> startsWith(CharSequence prefix){
+        this.validateWord(prefix);
+        List<String> list = new ArrayList<>();
+        Match match = this.findNode(this.normalizer.normalize(prefix));
+        if (match == null) return list;
+        char[] path = Arrays.copyOf(match.node.chars, match.node.offset + match.node.length); //The node's path and its own label
+        this.findWords(match.node, path, path.length, list);
+        return list;
+    }
+
+    //Checks if a word contains words under this @prefix, every node is a word end or leads to one, so reaching a node is enough
+    public boolean containsPrefix(CharSequence prefix){
+        this.validateWord(prefix);
+        return this.findNode(this.normalizer.normalize(prefix)) != null;
+    }
+
+    //Walks the subtree under the prefix rather than keeping counts, there are far fewer nodes to walk than in a per char trie
+    public int countWithPrefix(CharSequence prefix){
+        this.validateWord(prefix);
+        Match match = this.findNode(this.normalizer.normalize(prefix));
+        return match == null ? 0 : match.node.countWords();
+    }
+
+    public boolean containsExact(CharSequence word){
+        this.validateWord(word);
+        Match match = this.findNode(this.normalizer.normalize(word));
+        return match != null && match.endsOnNode && match.node.wordEnd;
+    }
+
+    public int size(){
+        return this.size;
+    }
+
+    public Trie copy(){
+        return new RadixTrie(this.root.deepCopy(), this.size, this.normalizer);
+    }
+
+    //Labels are expanded back to a node per char, since the frozen layout has no edge labels
+    public Trie freeze(){
+        List<String> words = new ArrayList<>(this.size);
+        this.findWords(this.root, new char[16], 0, words);
+        return FrozenTrie.ofSorted(words, this.normalizer);
+    }
+
+    //Number of nodes, root excluded
+    public int nodeCount(){
+        return this.root.count() - 1;
+    }
+
+
+    //Helpers
+
+    //The node the prefix ends in, either exactly at the end of its label or part way through it. Null if the prefix isn't in the trie
+    Match findNode(String prefix){
+        RadixNode node = this.root;
+        int i = 0;
+        while (i < prefix.length()){
+            RadixNode child = node.child(prefix.charAt(i));
+            if (child == null) return null;
+            int m = child.commonLength(prefix, i);
+            i += m;
+            if (m < child.length) return i == prefix.length() ? new Match(child, false) : null;
+            node = child;
+        }
+
+        return new Match(node, true);
+    }
+
+    //@path holds the chars up to and including @node's label in [0, len)
+    void findWords(RadixNode node, char[] path, int len, List<String> words){
+        if (node.wordEnd) words.add(new String(path, 0, len));
+        for (int i = 0; i < node.childCount; i++){
+            RadixNode child = node.children[i];
+            int end = len + child.length;
+            if (end > path.length) path = Arrays.copyOf(path, Math.max(end, path.length * 2));
+            System.arraycopy(child.chars, child.offset, path, len, child.length);
+            this.findWords(child, path, end, words);
+        }
+    }
+
+    void validateWord(CharSequence s){
+        if (s == null || s.isEmpty()) throw new IllegalArgumentException("word != null && word != \"\"");
+    }
+
+    record Match(RadixNode node, boolean endsOnNode){}
+
+    static final class RadixNode {
+        private final static char[] NO_KEYS = {};
+        private final static RadixNode[] NO_CHILDREN = {};
+        char[] chars; //The label is chars[offset, offset + length)
+        int offset;
+        int length;
+        boolean wordEnd;
+        char[] keys; //First char of each child's label, sorted
+        RadixNode[] children;
+        int childCount;
+
+        RadixNode(char[] chars, int offset, int length, boolean wordEnd) {
+            this.chars = chars;
+            this.offset = offset;
+            this.length = length;
+            this.wordEnd = wordEnd;
+            this.keys = NO_KEYS;
+            this.children = NO_CHILDREN;
+        }
+
+        char firstChar(){
+            return this.chars[this.offset];
+        }
+
+        RadixNode child(char c){
+            int idx = Arrays.binarySearch(this.keys, 0, this.childCount, c);
+            return idx >= 0 ? this.children[idx] : null;
+        }
+
+        //Adds the child, or replaces the one whose label starts with the same char
+        void putChild(RadixNode child){
+            char c = child.firstChar();
+            int idx = Arrays.binarySearch(this.keys, 0, this.childCount, c);
+            if (idx >= 0) {
+                this.children[idx] = child;
+                return;
+            }
+
+            idx = -(idx + 1);
+            if (this.childCount == this.keys.length){
+                int cap = this.childCount + (this.childCount >> 1) + 1;
+                this.keys = Arrays.copyOf(this.keys, cap);
+                this.children = Arrays.copyOf(this.children, cap);
+            }
+
+            int moved = this.childCount - idx;
+            System.arraycopy(this.keys, idx, this.keys, idx + 1, moved);
+            System.arraycopy(this.children, idx, this.children, idx + 1, moved);
+            this.keys[idx] = c;
+            this.children[idx] = child;
+            ++this.childCount;
+        }
+
+        void removeChild(char c){
+            int idx = Arrays.binarySearch(this.keys, 0, this.childCount, c);
+            int moved = this.childCount - idx - 1;
+            System.arraycopy(this.keys, idx + 1, this.keys, idx, moved);
+            System.arraycopy(this.children, idx + 1, this.children, idx, moved);
+            this.children[--this.childCount] = null;
+        }
+
+        //How many chars of the label match @s from @from
+        int commonLength(CharSequence s, int from){
+            int max = Math.min(this.length, s.length() - from);
+            int m = 0;
+            while (m < max && this.chars[this.offset + m] == s.charAt(from + m)) ++m;
+            return m;
+        }
+
+        int commonLength(char[] s, int from){
+            int max = Math.min(this.length, s.length - from);
+            int m = Arrays.mismatch(this.chars, this.offset, this.offset + max, s, from, from + max);
+            return m < 0 ? max : m;
+        }
+
+        boolean matches(String s, int from){
+            return this.commonLength(s, from) == this.length;
+        }
+
+        //Splits this node's label after @m chars, this node keeps the tail and the returned node takes the head with this node as its only child
+        RadixNode splitAt(int m){
+            RadixNode head = new RadixNode(this.chars, this.offset, m, false);
+            this.offset += m;
+            this.length -= m;
+            head.putChild(this);
+            return head;
+        }
+
+        //Folds this node into its only child, the child's array already holds this node's label right before its own
+        RadixNode mergeWithChild(){
+            RadixNode child = this.children[0];
+            child.offset -= this.length;
+            child.length += this.length;
+            return child;
+        }
+
+        RadixNode deepCopy(){
+            RadixNode copy = new RadixNode(this.chars, this.offset, this.length, this.wordEnd);
+            copy.keys = Arrays.copyOf(this.keys, this.childCount);
+            copy.children = new RadixNode[this.childCount];
+            copy.childCount = this.childCount;
+            for (int i = 0; i < this.childCount; i++) copy.children[i] = this.children[i].deepCopy();
+            return copy;
+        }
+
+        int countWords(){
+            int count = this.wordEnd ? 1 : 0;
+            for (int i = 0; i < this.childCount; i++) count += this.children[i].countWords();
+            return count;
+        }
+
+        int count(){
+            int count = 1;
+            for (int i = 0; i < this.childCount; i++) count += this.children[i].count();
+            return count;
+        }
+    }
+}
@@ -2,7 +2,10 @@ package com.github.kusoroadeolu.vicutils.ds;
 
 import com.github.kusoroadeolu.vicutils.misc.LockHelper;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.Objects;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
@@ -105,10 +108,90 @@ public class RingBuffer<T> implements Iterable<T>{
         return withLock(rLock, () ->  this.buf.length);
     }
 
+    //Physical order, use copyTo for oldest to newest
     @SuppressWarnings("unchecked")
     public T[] toArray(){
-        final Object[] arr = this.buf.clone();
-        return (T[])arr;
+        return withLock(rLock, () -> (T[]) this.buf.clone());
+    }
+
+    /**
+     * Add @len elements of @src from @off, in order, under one write lock. Same as calling add on each, but at most two array copies
+     * If @len is more than the capacity only the last capacity elements are copied, the ones before would be overwritten anyway
+     * */
+    public void addAll(T[] src, int off, int len){
+        Objects.checkFromIndexSize(off, len, src.length);
+        wLock.lock();
+        try {
+            if (len > cap){ //Skip what a lap would overwrite, but leave pos where @len adds would have left it
+                int skip = len - cap;
+                this.resetPos();
+                this.pos = (this.pos + skip) % cap;
+                this.hasFilled = true;
+                off += skip;
+                len = cap;
+            }
+
+            while (len > 0){
+                this.resetPos();
+                int n = Math.min(len, cap - pos);
+                System.arraycopy(src, off, this.buf, pos, n);
+                pos += n;
+                off += n;
+                len -= n;
+            }
+        }finally {
+            wLock.unlock();
+        }
+    }
+
+    //Copies the buffer oldest to newest into @dst under one read lock, returns how many were copied. Removed slots are copied as nulls
+    public int copyTo(T[] dst){
+        rLock.lock();
+        try {
+            int count = this.count();
+            if (dst.length < count) throw new IndexOutOfBoundsException("dst.length < " + count);
+            this.copyOut(dst, count);
+            return count;
+        }finally {
+            rLock.unlock();
+        }
+    }
+
+    //Moves every element oldest to newest into @c and empties the buffer, under one write lock. Removed slots are skipped, returns how many were moved
+    @SuppressWarnings("unchecked")
+    public int drainTo(Collection<? super T> c){
+        wLock.lock();
+        try {
+            int count = this.count();
+            Object[] arr = new Object[count];
+            this.copyOut(arr, count);
+            int moved = 0;
+            for (Object o : arr){
+                if (o == null) continue;
+                c.add((T) o);
+                ++moved;
+            }
+
+            Arrays.fill(this.buf, null);
+            this.pos = FIRST_INDEX;
+            this.hasFilled = false;
+            return moved;
+        }finally {
+            wLock.unlock();
+        }
+    }
+
+    //Slots in use, called under a lock
+    int count(){
+        return this.hasFilled ? cap : pos;
+    }
+
+    //Copies the @count slots oldest to newest into @dst as at most two segments, called under a lock
+    void copyOut(Object[] dst, int count){
+        int oldest = this.hasFilled && pos < cap ? pos : FIRST_INDEX;
+        int first = Math.min(count, cap - oldest);
+        System.arraycopy(this.buf, oldest, dst, 0, first);
+        System.arraycopy(this.buf, FIRST_INDEX, dst, first, count - first);
     }
 
     //Weakly consistent
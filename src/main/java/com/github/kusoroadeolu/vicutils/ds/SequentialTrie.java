@@ -3,172 +3,391 @@ package com.github.kusoroadeolu.vicutils.ds;
 import java.util.*;
 
 public class SequentialTrie implements Trie{
-    //A map of a node (a character) and it's children nodes, we're assuming this map is a list of nodes, though it exists solely for 0(1) lookups and to simplify things
-    final Map<Character, Map<Character, Node>> heads;
-    int size;
+    //A map of the first character of each word to its head node. Head nodes are plain nodes, so a single character word is just a head that is a word end
+    final Map<Character, Node> heads;
+    final NodeLayout layout; //How every node below the heads stores its children
+    final KeyNormalizer normalizer; //Applied to every key per code point, nodes only ever hold normalized chars
+    int size; //Only read and written through size() and addSize, subclasses that count differently override both
 
-    SequentialTrie(Map<Character, Map<Character, Node>> heads, int size) {
+    SequentialTrie(Map<Character, Node> heads, int size, NodeLayout layout, KeyNormalizer normalizer) {
         this.heads = heads;
         this.size = size;
+        this.layout = layout;
+        this.normalizer = normalizer;
+    }
+
+    public SequentialTrie(NodeLayout layout, KeyNormalizer normalizer){
+        this(layout.newChildren(), 0, layout, normalizer);
+    }
+
+    public SequentialTrie(NodeLayout layout){
+        this(layout, KeyNormalizer.LOWER_CASE);
     }
 
     public SequentialTrie(){
-        this(new HashMap<>(), 0);
+        this(NodeLayout.HASHED);
+    }
+
+    public boolean add(CharSequence word){
+        return this.add(word, 0, false);
     }
 
-    public boolean add(String word){
+    //Adds a word with a weight for topK, if the word is already in the trie its weight is replaced. Returns true only if the word is new
+    public boolean add(CharSequence word, int weight){
+        return this.add(word, weight, true);
+    }
+
+    private boolean add(CharSequence word, int weight, boolean reweigh){
         this.validateWord(word);
-        if (this.containsExact(word)) return false;
-        word = word.toLowerCase();
-        if (word.length() == 1) this.heads.putIfAbsent(word.charAt(0), new HashMap<>());
-        else {
-            final var map = this.addHead(word);
-            //Next character should always be 1
-            this.insert(word, map, 1);
-        }
-        ++size;
+        if (!this.addWord(this.normalizer.normalize(word), weight, reweigh)) return false;
+        this.addSize(1);
         return true;
     }
 
-    public boolean remove(String word){
-        this.validateWord(word);
-        word = word.toLowerCase();
+    //Sorts the words then builds them in one pass, each word only walks down from where it parts from the word before it
+    public int addAll(Collection<? extends CharSequence> words){
+        String[] sorted = this.sortedWords(words, false);
+        int added = this.bulkInsert(sorted, 0, sorted.length);
+        this.addSize(added);
+        return added;
+    }
 
-        if (!this.containsExact(word)) return false;
-        char c = word.charAt(0);
-        Map<Character, Node> map = heads.get(c);
-        //Index should be one here since we're passing the node map
-        int removeAt = this.findUniparentalOldestNode(word, map, 1, 0);
-        this.removeNodes(map, word, 1, removeAt);
-        --size;
+    public boolean remove(CharSequence word){
+        this.validateWord(word);
+        Node end = this.lookup(word);
+        if (end == null || !end.isWordEnd()) return false;
+        String w = this.normalizer.normalize(word);
+        char c = w.charAt(0);
+        if (this.removeNodes(this.heads.get(c), w, 0)) this.heads.remove(c);
+        this.addSize(-1);
         return true;
     }
 
-     public List<String> startsWith(String prefix){
-        return this.findPrefixes(prefix, false);
+     public List<String> startsWith(CharSequence prefix){
+        return this.collectWords(prefix);
      }
 
-     //Checks if a word contains words under this @prefix
-     public boolean containsPrefix(String prefix){
-        return this.findPrefixes(prefix, true).size() > 1;
+     //Same words as startsWith, collected on the common fork join pool with the subtree split at its children, see ParallelCollect
+     //For big scans like every word under a one letter prefix, small prefixes are collected on the calling thread anyway. The list is fixed size
+     public List<String> parallelStartsWith(CharSequence prefix){
+        this.validateWord(prefix);
+        String p = this.normalizer.normalize(prefix);
+        Node node = this.findNode(p);
+        return node == null ? new ArrayList<>() : Arrays.asList(ParallelCollect.collect(node, p));
      }
 
-     public boolean containsExact(String word){
-         this.validateWord(word);
-         word = word.toLowerCase();
-         if (word.length() == 1) return this.heads.containsKey(word.charAt(0));
+     public Iterator<String> prefixIterator(CharSequence prefix){
+        this.validateWord(prefix);
+        String p = this.normalizer.normalize(prefix);
+        Node node = this.findNode(p);
+        return node == null ? Collections.emptyIterator() : new PrefixIterator(p, node, null);
+     }
+
+     //Checks if any word starts with this @prefix, by descending to the prefix's node
+     public boolean containsPrefix(CharSequence prefix){
+        return this.countWithPrefix(prefix) > 0;
+     }
+
+     //O(|prefix|) and allocation free, each node keeps a count of the words under it
+     public int countWithPrefix(CharSequence prefix){
+        this.validateWord(prefix);
+        Node node = this.lookup(prefix);
+        return node == null ? 0 : node.wordCount();
+     }
 
-         Map<Character, Node> currMap = this.heads.get(word.charAt(0));
-         if (currMap == null) return false;
+     public boolean containsExact(CharSequence word){
+         this.validateWord(word);
+         Node node = this.lookup(word);
+         return node != null && node.isWordEnd(); //Ensure the final node is the word end
+     }
 
-         Node node = null;
-         for (int i = 1; i < word.length(); i++){
-             node = currMap.get(word.charAt(i));
-             if (node == null) return false; //Ensure this char exists
-             currMap = node.children();
-         }
+     //The @k highest weighted words under this @prefix, highest first
+     public List<String> topK(CharSequence prefix, int k){
+        this.validateWord(prefix);
+        String p = this.normalizer.normalize(prefix);
+        Node node = this.findNode(p);
+        return node == null ? new ArrayList<>() : this.bestFirst(p, node, k);
+     }
 
-         return node.isWordEnd(); //Ensure the final node is the word end
+     //Every word within @maxEdits insertions, deletions or substitutions of @word, subtrees that can't get back under @maxEdits are never walked
+     public List<String> fuzzy(CharSequence word, int maxEdits){
+        this.validateWord(word);
+        if (maxEdits < 0) throw new IllegalArgumentException("maxEdits < 0");
+        FuzzySearch search = new FuzzySearch(this.normalizer.normalize(word), maxEdits);
+        List<String> words = new ArrayList<>();
+        for (Node head : this.heads.values()) search.search(head, words);
+        return words;
      }
 
      public int size(){
         return this.size;
      }
 
+     //Walks every node, so it costs about as much as listing every word
+     public TrieStats stats(){
+        int[] shape = new int[2];
+        Map<Character, Integer> words = new TreeMap<>();
+        for (Node head : this.heads.values()) this.measure(head, shape, words);
+        return new TrieStats(shape[0], shape[1], words, Map.of());
+     }
+
+     //A deep copy that shares nothing with this trie, it costs as much as the trie is big. PersistentTrie copies in O(1)
      public Trie copy(){
-        return new SequentialTrie(Map.copyOf(heads), size);
+        return new SequentialTrie(this.copyHeads(this.heads.values(), this.layout.newChildren()), this.size(), this.layout, this.normalizer);
+     }
+
+     public Trie freeze(){
+        return FrozenTrie.of(this.heads.values(), this.normalizer);
      }
 
 
     //Helpers
 
-      List<String> findPrefixes(String prefix, boolean shouldBreak){
-         this.validateWord(prefix);
-         prefix = prefix.toLowerCase();
-         List<String> list = new ArrayList<>();
-         char c = prefix.charAt(0);
-         Map<Character, Node> nodes = this.heads.get(c);
-         if (nodes == null) return list;
-
-         String s = Character.toString(c);
-         list.add(s);
-         this.findWords(nodes, list, s, prefix.length() ,shouldBreak);
-         return list;
-     }
-
-     //Recursively goes through each node
-     void removeNodes(Map<Character, Node> map, String word, int index, int removeAt){
-        int len = word.length();
-        if (len == index) return;
-        char c = word.charAt(index);
-        Node node = map.get(c);
-        if (removeAt == -1){
-            if ((len - 1) == index) node.setWordEnd(false); //Means we're at the final index of this word node
-        }else {
-            //The index is at the parent index(remove at), so we just remove the character and its children
-            if ((index == removeAt)){ //Remove the node from the parent is indicating that this is the parent that we want to remove the child from
-                map.remove(c);
-                return;
+     void addSize(int delta){
+        this.size += delta;
+     }
+
+     //Validated, normalized and sorted, so words sharing a prefix sit next to each other
+     String[] sortedWords(Collection<? extends CharSequence> words, boolean parallel){
+        String[] sorted = new String[words.size()];
+        int i = 0;
+        boolean inOrder = true; //Dictionaries usually come sorted already, and then sorting them is most of the load's cost
+        for (CharSequence w : words){
+            this.validateWord(w);
+            sorted[i] = this.normalizer.normalize(w);
+            if (inOrder && i > 0 && sorted[i - 1].compareTo(sorted[i]) > 0) inOrder = false;
+            ++i;
+        }
+
+        if (inOrder) return sorted;
+        if (parallel) Arrays.parallelSort(sorted);
+        else Arrays.sort(sorted);
+        return sorted;
+     }
+
+     //Inserts sorted[from, to) in one pass. @path holds the nodes of the previous word, so the chars a word shares with it are never walked again
+     //Returns how many of the words were new
+     int bulkInsert(String[] sorted, int from, int to){
+        Node[] path = new Node[16];
+        String prev = "";
+        int added = 0;
+        for (int w = from; w < to; w++){
+            String word = sorted[w];
+            int len = word.length();
+            if (len > path.length) path = Arrays.copyOf(path, Math.max(len, path.length * 2));
+            int common = 0;
+            int max = Math.min(len, prev.length());
+            while (common < max && prev.charAt(common) == word.charAt(common)) ++common;
+
+            for (int i = common; i < len; i++){
+                char c = word.charAt(i);
+                path[i] = i == 0 ? this.addHead(word) : path[i - 1].children().computeIfAbsent(c, this::newNode);
             }
+
+            for (int i = 0; i < len; i++) path[i].raiseMaxWeight(0); //Bulk loaded words carry the default weight, same as add
+            Node end = path[len - 1];
+            if (!end.isWordEnd()){
+                end.setWordEnd(true);
+                end.setWeight(0);
+                for (int i = 0; i < len; i++) path[i].addWordCount(1);
+                ++added;
+            }
+            prev = word;
         }
 
-         this.removeNodes(node.children(), word, ++index, removeAt);
+        return added;
+     }
+
+     //Walks every word under this prefix into a list, without locking
+     List<String> collectWords(CharSequence prefix){
+        List<String> list = new ArrayList<>();
+        this.validateWord(prefix);
+        String p = this.normalizer.normalize(prefix);
+        Node node = this.findNode(p);
+        if (node != null) new PrefixIterator(p, node, null).forEachRemaining(list::add);
+        return list;
      }
 
-     // Remove at is what we're modifying, we're using index to keep track of the recursive depth
-     int findUniparentalOldestNode(String word, Map<Character, Node> map, int index, int removeAt){
-        int len = word.length();
-        if (index == len) { //If the index is equals to length, means we've reached the end of this string
-            if (!map.isEmpty()) return -1; //-1 means don't remove anything, because this node has children
-            else return removeAt;
+     //Walks down to the word's last node, unmarks it, then prunes every node left without children or words on the way back up
+     //Returns true if @node itself is now dead and should be removed from its parent
+     boolean removeNodes(Node node, String word, int index){
+        node.addWordCount(-1);
+        if (index == word.length() - 1) {
+            node.setWordEnd(false);
+            node.setWeight(0);
+        } else {
+            char c = word.charAt(index + 1);
+            Node child = node.children().get(c); //Will always contain c, since we've checked before
+            if (this.removeNodes(child, word, index + 1)) node.children().remove(c);
         }
-        char c = word.charAt(index);
-        Node node = map.get(c); //Map will always contain c, since, we've checked before
-        if (node.children().size() <= 1) removeAt = index; //If this node only has one child set remove at to the index
-        return findUniparentalOldestNode(word, node.children(), ++index, removeAt);
+
+        node.recomputeMaxWeight(); //The removed word may have been the heaviest under this node
+        return !node.isWordEnd() && node.children().isEmpty();
      }
 
+     //Sets the weight of an existing word, recomputing the max weight of each node on its path on the way back up
+     void reweigh(Node node, String word, int index, int weight){
+        if (index == word.length() - 1) node.setWeight(weight);
+        else this.reweigh(node.children().get(word.charAt(index + 1)), word, index + 1, weight);
+        node.recomputeMaxWeight();
+     }
 
-    //Add the first char of this word to the map if it doesn't exist, and return its map of nodes
-    Map<Character, Node> addHead(String word){
-        char c = word.charAt(0);
-        Map<Character, Node> map = this.heads.get(c);
-        if (map == null){
-            map = new HashMap<>();
-            this.heads.put(c, map);
-            return map;
+     //Best first search from @start, nodes are expanded in order of their max weight, so the search stops after k words instead of walking the whole subtree
+     //A word is queued alongside its node's children with its own weight, and only taken once nothing left in the queue can beat it
+     List<String> bestFirst(String prefix, Node start, int k){
+        List<String> words = new ArrayList<>(Math.max(k, 0));
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        queue.add(new Candidate(start, null, start.maxWeight(), false));
+        while (!queue.isEmpty() && words.size() < k){
+            Candidate cand = queue.poll();
+            if (cand.isWord()){
+                words.add(cand.word(prefix));
+                continue;
+            }
+
+            Node n = cand.node();
+            if (n.isWordEnd()) queue.add(new Candidate(n, cand.parent(), n.weight(), true));
+            for (Node child : n.children().values()){
+                queue.add(new Candidate(child, cand, child.maxWeight(), false));
+            }
         }
 
-        return map;
-    }
+        return words;
+     }
+
+     //Adds the word with this weight, if it's already in the trie its weight is only replaced if @reweigh. Returns true if the word is new
+     boolean addWord(String word, int weight, boolean reweigh){
+        Node end = this.findNode(word);
+        if (end != null && end.isWordEnd()){
+            if (reweigh) this.reweigh(this.heads.get(word.charAt(0)), word, 0, weight);
+            return false;
+        }
 
-    //Recursively iterates through each node, adding valid inserted words into the list. 'Should break', returns when the first valid prefix is found
-    //Len, the length of the original word/prefix passed
-     void findWords(Map<Character, Node> nodes, List<String> words, String prefix, int len, boolean shouldBreak){
-        Collection<Node> nodeList = nodes.values();
-        for (Node n : nodeList){
-            String s = prefix + n.c();
-            if (n.isWordEnd() && s.length() >= len){
-                words.add(s);
-                if (shouldBreak) return; //Return once you find the first word
+        this.insert(word, this.addHead(word), 0, weight);
+        return true;
+     }
+
+     //Walks down a key that isn't normalized yet, normalizing each code point on the way rather than building the normalized key
+     //Returns the node at the end of its path, or null if the path doesn't exist
+     Node lookup(CharSequence key){
+        Node node = null;
+        for (int i = 0; i < key.length(); ){
+            int cp = Character.codePointAt(key, i);
+            i += Character.charCount(cp);
+            int n = this.normalizer.normalize(cp);
+            if (Character.isBmpCodePoint(n)) node = this.step(node, (char) n);
+            else {
+                node = this.step(node, Character.highSurrogate(n));
+                if (node != null) node = this.step(node, Character.lowSurrogate(n));
             }
-            this.findWords(n.children(), words, prefix, len ,shouldBreak);
+
+            if (node == null) return null;
         }
+
+        return node;
      }
 
-    //Recursively walks through a node, checking extra nodes, and
-    void insert(String word, Map<Character, Node> parentMap, int index){
-        int len = word.length();
-        if (index == len) return; //If the index is out of bounds return
-        boolean isWordEnd = index == len - 1;
-        char c = word.charAt(index);
-        Node cNode = parentMap.computeIfAbsent(c, _ -> new Node(c, new HashMap<>(), isWordEnd));
-        if (!cNode.children().isEmpty() && isWordEnd) cNode.setWordEnd(true); //If this is a prefix of an old insert, ensure we set that this is a word
-        this.insert(word, cNode.children(), ++index);
+     //The child of @node for this char, with a null @node standing for the heads
+     Node step(Node node, char c){
+        return node == null ? this.heads.get(c) : node.children().get(c);
+     }
+
+     //The first char of the normalized key, which picks the key's head
+     char headOf(CharSequence key){
+        int n = this.normalizer.normalize(Character.codePointAt(key, 0));
+        return Character.isBmpCodePoint(n) ? (char) n : Character.highSurrogate(n);
+     }
+
+     //Returns the node at the end of this normalized word's path, or null if the path doesn't exist
+     Node findNode(String word){
+        Node node = this.heads.get(word.charAt(0));
+        for (int i = 1; node != null && i < word.length(); i++){
+            node = node.children().get(word.charAt(i)); //Null if this char doesn't exist
+        }
+
+        return node;
+     }
+
+
+    //Add the first char of this word to the map if it doesn't exist, and return its head node
+    Node addHead(String word){
+        char c = word.charAt(0);
+        Node head = this.heads.get(c);
+        if (head == null){
+            head = this.newNode(c);
+            this.heads.put(c, head);
+        }
+
+        return head;
+    }
+
+    //Recursively walks down from @node (the char at @index), creating missing nodes and raising the max weight and word count of each node on the way
+    //Only called for words that aren't in the trie yet, returns the word's end node
+    Node insert(String word, Node node, int index, int weight){
+        node.raiseMaxWeight(weight);
+        node.addWordCount(1);
+        if (index == word.length() - 1) { //If this is a prefix of an old insert, ensure we set that this is a word
+            node.setWordEnd(true);
+            node.setWeight(weight);
+            return node;
+        }
+
+        char c = word.charAt(index + 1);
+        Node cNode = node.children().computeIfAbsent(c, this::newNode);
+        return this.insert(word, cNode, index + 1, weight);
+    }
+
+    //Adds @head's subtree to @shape, {node count, max depth}, and its word count to @words
+    void measure(Node head, int[] shape, Map<Character, Integer> words){
+        words.put(head.c(), head.wordCount());
+        this.measure(head, 1, shape);
+    }
+
+    void measure(Node node, int depth, int[] shape){
+        shape[0]++;
+        shape[1] = Math.max(shape[1], depth);
+        for (Node child : node.children().values()) this.measure(child, depth + 1, shape);
     }
 
-    void validateWord(String s){
+    //Deep copies these heads into @into
+    Map<Character, Node> copyHeads(Collection<Node> heads, Map<Character, Node> into){
+        for (Node head : heads) into.put(head.c(), this.copyNode(head));
+        return into;
+    }
+
+    Node copyNode(Node node){
+        Node copy = new Node(node.c(), this.layout.newChildren(), false);
+        copy.setWordEnd(node.isWordEnd());
+        copy.setWeight(node.weight());
+        copy.raiseMaxWeight(node.maxWeight());
+        copy.addWordCount(node.wordCount());
+        for (Node child : node.children().values()) copy.children().put(child.c(), this.copyNode(child));
+        return copy;
+    }
+
+    //Every node is made here, so a subclass can hang more off each node
+    Node newNode(char c){
+        return new Node(c, this.layout.newChildren(), false);
+    }
+
+    void validateWord(CharSequence s){
         if (s == null || s.isEmpty()) throw new IllegalArgumentException("word != null && word != \"\"");
     }
 
+    //A node queued by bestFirst, @parent links back up to the start so the word is only built once it's taken
+    record Candidate(Node node, Candidate parent, int priority, boolean isWord) implements Comparable<Candidate>{
+        public int compareTo(Candidate o) {
+            int cmp = Integer.compare(o.priority, this.priority); //Heaviest first
+            return cmp != 0 ? cmp : Boolean.compare(o.isWord, this.isWord); //On a tie take the word, nothing under the node can beat it
+        }
+
+        String word(String prefix){
+            int depth = 0;
+            for (Candidate c = this; c.parent != null; c = c.parent) ++depth;
+            char[] chars = new char[prefix.length() + depth];
+            prefix.getChars(0, prefix.length(), chars, 0);
+            for (Candidate c = this; c.parent != null; c = c.parent) chars[prefix.length() + --depth] = c.node.c();
+            return new String(chars);
+        }
+    }
 }
@@ -0,0 +1,146 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.*;
+import java.util.function.Function;
+
+// A TrieMap on the same nodes as SequentialTrie, every node is a ValueNode that carries its word's value next to the word end flag
+/*Invariants
+* @trie owns the nodes and makes every structural change (inserts, pruning, word counts), this class only reads and writes the values on them
+* A node's value is non null exactly when it's a word end
+* The helpers take normalized keys and never lock, subclasses lock around them
+* */
+public class SequentialTrieMap<V> implements TrieMap<V> {
+    final SequentialTrie trie;
+    int size;
+
+    SequentialTrieMap(Map<Character, Trie.Node> heads, NodeLayout layout, KeyNormalizer normalizer) {
+        this.trie = new SequentialTrie(heads, 0, layout, normalizer){
+            Node newNode(char c){
+                return new ValueNode<>(c, this.layout.newChildren());
+            }
+        };
+    }
+
+    public SequentialTrieMap(NodeLayout layout, KeyNormalizer normalizer) {
+        this(layout.newChildren(), layout, normalizer);
+    }
+
+    public SequentialTrieMap(NodeLayout layout) {
+        this(layout, KeyNormalizer.LOWER_CASE);
+    }
+
+    public SequentialTrieMap() {
+        this(NodeLayout.HASHED);
+    }
+
+    public V get(CharSequence key){
+        this.trie.validateWord(key);
+        return this.valueOf(this.trie.lookup(key));
+    }
+
+    public V put(CharSequence key, V value){
+        this.trie.validateWord(key);
+        Objects.requireNonNull(value, "value");
+        return this.putValue(this.trie.normalizer.normalize(key), value);
+    }
+
+    public V computeIfAbsent(CharSequence key, Function<? super String, ? extends V> fn){
+        this.trie.validateWord(key);
+        return this.computeValue(this.trie.normalizer.normalize(key), fn);
+    }
+
+    public V remove(CharSequence key){
+        this.trie.validateWord(key);
+        return this.removeValue(this.trie.normalizer.normalize(key));
+    }
+
+    public boolean containsKey(CharSequence key){
+        return this.get(key) != null;
+    }
+
+    public List<Map.Entry<String, V>> entries(CharSequence prefix){
+        this.trie.validateWord(prefix);
+        return this.collectEntries(this.trie.normalizer.normalize(prefix));
+    }
+
+    public int size(){
+        return this.size;
+    }
+
+
+    //Helpers
+
+    @SuppressWarnings("unchecked")
+    V valueOf(Trie.Node node){
+        return node != null && node.isWordEnd() ? ((ValueNode<V>) node).value : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V putValue(String key, V value){
+        Trie.Node end = this.trie.findNode(key);
+        if (end != null && end.isWordEnd()){
+            ValueNode<V> node = (ValueNode<V>) end;
+            V old = node.value;
+            node.value = value;
+            return old;
+        }
+
+        ((ValueNode<V>) this.trie.insert(key, this.trie.addHead(key), 0, 0)).value = value; //Insert hands back the end node, so a new key is one descent
+        this.addSize(1);
+        return null;
+    }
+
+    V computeValue(String key, Function<? super String, ? extends V> fn){
+        V value = this.valueOf(this.trie.findNode(key));
+        if (value != null) return value;
+        value = fn.apply(key);
+        if (value != null) this.putValue(key, value);
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    V removeValue(String key){
+        Trie.Node end = this.trie.findNode(key);
+        if (end == null || !end.isWordEnd()) return null;
+        V old = ((ValueNode<V>) end).value;
+        ((ValueNode<V>) end).value = null;
+        char c = key.charAt(0);
+        if (this.trie.removeNodes(this.trie.heads.get(c), key, 0)) this.trie.heads.remove(c);
+        this.addSize(-1);
+        return old;
+    }
+
+    List<Map.Entry<String, V>> collectEntries(String prefix){
+        List<Map.Entry<String, V>> entries = new ArrayList<>();
+        Trie.Node node = this.trie.findNode(prefix);
+        if (node == null) return entries;
+
+        char[] path = Arrays.copyOf(prefix.toCharArray(), Math.max(16, prefix.length() * 2));
+        this.collectEntries(node, path, prefix.length(), entries);
+        return entries;
+    }
+
+    //@path holds the chars up to and including @node's in [0, len)
+    void collectEntries(Trie.Node node, char[] path, int len, List<Map.Entry<String, V>> entries){
+        V value = this.valueOf(node);
+        if (value != null) entries.add(Map.entry(new String(path, 0, len), value));
+        if (len == path.length) path = Arrays.copyOf(path, path.length * 2);
+        for (Trie.Node child : node.children().values()){
+            path[len] = child.c();
+            this.collectEntries(child, path, len + 1, entries);
+        }
+    }
+
+    void addSize(int delta){
+        this.size += delta;
+    }
+
+    //A node with a value, only ever made by @trie's newNode
+    static final class ValueNode<V> extends Trie.Node {
+        V value;
+
+        ValueNode(char c, Map<Character, Trie.Node> children) {
+            super(c, children, false);
+        }
+    }
+}
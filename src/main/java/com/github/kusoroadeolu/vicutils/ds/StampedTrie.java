@@ -0,0 +1,260 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+// A concurrent trie for read heavy loads, heads are striped over a fixed array of StampedLocks and reads are optimistic
+/*Invariants
+* A head's subtree is only written under the write lock of its stripe, stripes never change so no lock is looked up or created per call
+* Reads run without locking and keep their result only if the stripe's stamp still validates after, so an uncontended read writes nothing shared
+* If a writer took the stripe meanwhile, or the racy read threw because it saw the maps half updated, the read is rerun under the stripe's read lock
+* Writers only ever hold one stripe, so taking several in index order (freeze) can't deadlock
+* @sizeCounter is an estimate under concurrent writes, same as ConcurrentTrie
+* */
+public class StampedTrie extends SequentialTrie implements Trie{
+    private final static int DEFAULT_STRIPES = 64;
+    private final StampedLock[] stripes;
+    private final int mask;
+    private final LongAdder sizeCounter; //Same as ConcurrentTrie's
+
+    //@stripes is rounded up to a power of two
+    public StampedTrie(NodeLayout layout, int stripes, KeyNormalizer normalizer) {
+        super(new ConcurrentHashMap<>(), 0, layout, normalizer);
+        if (stripes < 1) throw new IllegalArgumentException("stripes < 1");
+        int n = 1;
+        while (n < stripes) n <<= 1;
+        this.stripes = new StampedLock[n];
+        for (int i = 0; i < n; i++) this.stripes[i] = new StampedLock();
+        this.mask = n - 1;
+        this.sizeCounter = new LongAdder();
+    }
+
+    public StampedTrie(NodeLayout layout, int stripes) {
+        this(layout, stripes, KeyNormalizer.LOWER_CASE);
+    }
+
+    public StampedTrie(NodeLayout layout) {
+        this(layout, DEFAULT_STRIPES);
+    }
+
+    public StampedTrie() {
+        this(NodeLayout.HASHED);
+    }
+
+    public boolean add(CharSequence word){
+        return this.add(word, 0, false);
+    }
+
+    public boolean add(CharSequence word, int weight){
+        return this.add(word, weight, true);
+    }
+
+    private boolean add(CharSequence word, int weight, boolean reweigh){
+        this.validateWord(word);
+        String w = this.normalizer.normalize(word);
+        StampedLock lock = this.stripe(w.charAt(0));
+        long stamp = lock.writeLock();
+        try {
+            if (!this.addWord(w, weight, reweigh)) return false;
+            this.addSize(1);
+            return true;
+        }finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    //Same as ConcurrentTrie, each run of words sharing a head is built in one pass under its stripe's write lock
+    public int addAll(Collection<? extends CharSequence> words){
+        String[] sorted = this.sortedWords(words, true);
+        List<Integer> runs = new ArrayList<>();
+        for (int i = 0; i < sorted.length; i++){
+            if (i == 0 || sorted[i].charAt(0) != sorted[i - 1].charAt(0)) runs.add(i);
+        }
+        runs.add(sorted.length);
+
+        return IntStream.range(0, runs.size() - 1).parallel().map(r -> {
+            int from = runs.get(r), to = runs.get(r + 1);
+            StampedLock lock = this.stripe(sorted[from].charAt(0));
+            long stamp = lock.writeLock();
+            try {
+                int added = this.bulkInsert(sorted, from, to);
+                this.addSize(added);
+                return added;
+            }finally {
+                lock.unlockWrite(stamp);
+            }
+        }).sum();
+    }
+
+    public boolean remove(CharSequence word){
+        this.validateWord(word);
+        String w = this.normalizer.normalize(word);
+        char c = w.charAt(0);
+        StampedLock lock = this.stripe(c);
+        long stamp = lock.writeLock();
+        try {
+            Node end = this.findNode(w);
+            if (end == null || !end.isWordEnd()) return false;
+            this.addSize(-1);
+            if (this.removeNodes(this.heads.get(c), w, 0)) this.heads.remove(c);
+            return true;
+        }finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public List<String> startsWith(CharSequence prefix){
+        this.validateWord(prefix);
+        String p = this.normalizer.normalize(prefix);
+        return this.read(p.charAt(0), () -> this.collectWords(p));
+    }
+
+    //Taken under the stripe's read lock rather than optimistically, a scan this big would rarely validate
+    public List<String> parallelStartsWith(CharSequence prefix){
+        this.validateWord(prefix);
+        StampedLock lock = this.stripe(this.headOf(prefix));
+        long stamp = lock.readLock();
+        try {
+            return super.parallelStartsWith(prefix);
+        }finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public List<String> topK(CharSequence prefix, int k){
+        this.validateWord(prefix);
+        String p = this.normalizer.normalize(prefix);
+        return this.read(p.charAt(0), () -> super.topK(p, k));
+    }
+
+    //Collected up front like startsWith, a lazy walk can't be validated
+    public Iterator<String> prefixIterator(CharSequence prefix){
+        return this.startsWith(prefix).iterator();
+    }
+
+    public boolean containsPrefix(CharSequence prefix){
+        return this.countWithPrefix(prefix) > 0;
+    }
+
+    public int countWithPrefix(CharSequence prefix){
+        this.validateWord(prefix);
+        return this.read(this.headOf(prefix), () -> {
+            Node node = this.lookup(prefix);
+            return node == null ? 0 : node.wordCount();
+        });
+    }
+
+    public boolean containsExact(CharSequence word){
+        this.validateWord(word);
+        return this.read(this.headOf(word), () -> {
+            Node node = this.lookup(word);
+            return node != null && node.isWordEnd();
+        });
+    }
+
+    //Each head is searched optimistically on its own, a head whose read fails validation is searched again under its stripe's read lock
+    public List<String> fuzzy(CharSequence word, int maxEdits){
+        this.validateWord(word);
+        if (maxEdits < 0) throw new IllegalArgumentException("maxEdits < 0");
+        FuzzySearch search = new FuzzySearch(this.normalizer.normalize(word), maxEdits);
+        List<String> words = new ArrayList<>();
+        for (Character c : this.heads.keySet()){
+            words.addAll(this.read(c, () -> {
+                List<String> found = new ArrayList<>();
+                Node head = this.heads.get(c);
+                if (head != null) search.search(head, found);
+                return found;
+            }));
+        }
+
+        return words;
+    }
+
+    public int size(){
+        return (int) this.sizeCounter.sum();
+    }
+
+    void addSize(int delta){
+        this.sizeCounter.add(delta);
+    }
+
+    //Each head is measured on its own like fuzzy, StampedLocks don't queue per head so there are no lock wait times
+    public TrieStats stats(){
+        int[] shape = new int[2];
+        Map<Character, Integer> words = new TreeMap<>();
+        for (Character c : this.heads.keySet()){
+            int[] head = this.read(c, () -> { //Measured into its own array, a failed optimistic read mustn't count twice
+                int[] s = new int[3];
+                Node node = this.heads.get(c);
+                if (node != null){
+                    this.measure(node, 1, s);
+                    s[2] = node.wordCount();
+                }
+                return s;
+            });
+
+            if (head[0] == 0) continue;
+            shape[0] += head[0];
+            shape[1] = Math.max(shape[1], head[1]);
+            words.put(c, head[2]);
+        }
+
+        return new TrieStats(shape[0], shape[1], words, Map.of());
+    }
+
+    //Consistent the same way freeze is, the copy is a StampedTrie of its own with the same stripes, layout and normalizer
+    public Trie copy(){
+        return this.withStripesLocked(() -> {
+            StampedTrie copy = new StampedTrie(this.layout, this.stripes.length, this.normalizer);
+            this.copyHeads(this.heads.values(), copy.heads);
+            copy.addSize(this.size());
+            return copy;
+        });
+    }
+
+    public Trie freeze(){
+        return this.withStripesLocked(super::freeze);
+    }
+
+
+    //Helpers
+
+    <R> R withStripesLocked(Supplier<R> fn){
+        long[] stamps = new long[this.stripes.length];
+        for (int i = 0; i < this.stripes.length; i++) stamps[i] = this.stripes[i].readLock();
+        try {
+            return fn.get();
+        }finally {
+            for (int i = 0; i < this.stripes.length; i++) this.stripes[i].unlockRead(stamps[i]);
+        }
+    }
+
+    StampedLock stripe(char c){
+        return this.stripes[c & this.mask];
+    }
+
+    //Runs @read optimistically and falls back to the stripe's read lock if the stamp doesn't validate
+    <R> R read(char c, Supplier<R> read){
+        StampedLock lock = this.stripe(c);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L){ //Zero if a writer holds the stripe right now, no point trying
+            try {
+                R result = read.get();
+                if (lock.validate(stamp)) return result;
+            }catch (RuntimeException _){
+                //The read raced a writer and saw a half updated map, same as failing validation
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return read.get();
+        }finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//RadixTrie behind one global read write lock, the same trade offs as SynchronizedTrie
+public class SynchronizedRadixTrie extends RadixTrie implements Trie{
+    private final ReadWriteLock rwl = new ReentrantReadWriteLock();
+    private final Lock rl = rwl.readLock();
+    private final Lock wl = rwl.writeLock();
+
+    SynchronizedRadixTrie(RadixNode root, int size, KeyNormalizer normalizer) {
+        super(root, size, normalizer);
+    }
+
+    public SynchronizedRadixTrie(KeyNormalizer normalizer) {
+        super(normalizer);
+    }
+
+    public SynchronizedRadixTrie() {
+        super();
+    }
+
+    public boolean add(CharSequence word){
+        wl.lock();
+        try {
+            return super.add(word);
+        }finally {
+            wl.unlock();
+        }
+    }
+
+    public boolean remove(CharSequence word){
+        wl.lock();
+        try {
+            return super.remove(word);
+        }finally {
+            wl.unlock();
+        }
+    }
+
+    public List<String> startsWith(CharSequence prefix){
+        rl.lock();
+        try {
+            return super.startsWith(prefix);
+        }finally {
+            rl.unlock();
+        }
+    }
+
+    public boolean containsPrefix(CharSequence prefix){
+        rl.lock();
+        try {
+            return super.containsPrefix(prefix);
+        }finally {
+            rl.unlock();
+        }
+    }
+
+    public int countWithPrefix(CharSequence prefix){
+        rl.lock();
+        try {
+            return super.countWithPrefix(prefix);
+        }finally {
+            rl.unlock();
+        }
+    }
+
+    public boolean containsExact(CharSequence word){
+        rl.lock();
+        try {
+            return super.containsExact(word);
+        }finally {
+            rl.unlock();
+        }
+    }
+
+    public int size(){
+        rl.lock();
+        try {
+            return super.size();
+        }finally {
+            rl.unlock();
+        }
+    }
+
+    public Trie copy(){
+        rl.lock();
+        try {
+            return new SynchronizedRadixTrie(this.root.deepCopy(), this.size, this.normalizer);
+        }finally {
+            rl.unlock();
+        }
+    }
+
+    public Trie freeze(){
+        rl.lock();
+        try {
+            return super.freeze();
+        }finally {
+            rl.unlock();
+        }
+    }
+
+    public int nodeCount(){
+        rl.lock();
+        try {
+            return super.nodeCount();
+        }finally {
+            rl.unlock();
+        }
+    }
+}
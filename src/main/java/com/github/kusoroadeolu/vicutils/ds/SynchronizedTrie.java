@@ -1,7 +1,7 @@
 package com.github.kusoroadeolu.vicutils.ds;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.Lock;
@@ -12,31 +12,42 @@ public class SynchronizedTrie extends SequentialTrie implements Trie{
     private final ReadWriteLock rwl = new ReentrantReadWriteLock();
     private final Lock rl = rwl.readLock();
     private final Lock wl = rwl.writeLock();
-    private volatile int size;
-    public SynchronizedTrie(Map<Character, Map<Character, Trie.Node>> heads, int size) {
-        super(heads, size);
+    public SynchronizedTrie(Map<Character, Trie.Node> heads, int size, NodeLayout layout, KeyNormalizer normalizer) {
+        super(heads, size, layout, normalizer);
 
     }
 
+    public SynchronizedTrie(Map<Character, Trie.Node> heads, int size, NodeLayout layout) {
+        this(heads, size, layout, KeyNormalizer.LOWER_CASE);
+    }
+
+    public SynchronizedTrie(NodeLayout layout, KeyNormalizer normalizer) {
+        this(layout.newChildren(), 0, layout, normalizer);
+    }
+
+    public SynchronizedTrie(NodeLayout layout) {
+        this(layout, KeyNormalizer.LOWER_CASE);
+    }
+
     public SynchronizedTrie() {
-        this(new HashMap<>(), 0);
+        this(NodeLayout.HASHED);
+    }
+
+    public boolean add(CharSequence word){
+        return this.add(word, 0, false);
+    }
+
+    public boolean add(CharSequence word, int weight){
+        return this.add(word, weight, true);
     }
 
-    public boolean add(String word){
+    private boolean add(CharSequence word, int weight, boolean reweigh){
         this.validateWord(word);
-        word = word.toLowerCase();
-        char c = word.charAt(0);
+        String w = this.normalizer.normalize(word);
         wl.lock();
         try {
-            if (this.containsExact(word)) return false;
-            ++size;//increment the size immediately, would be useful for CAS loops where i'll be checking the size rather than the reference itself
-            if (word.length() == 1) this.heads.putIfAbsent(c, new HashMap<>());
-            else {
-                final var map = this.addHead(word);
-                //Next character should always be 1
-                this.insert(word, map, 1);
-            }
-
+            if (!this.addWord(w, weight, reweigh)) return false;
+            this.addSize(1);
             return true;
         }finally {
             wl.unlock();
@@ -44,19 +55,30 @@ public class SynchronizedTrie extends SequentialTrie implements Trie{
 
     }
 
-    public boolean remove(String word){
+    //Sorting happens outside the lock, only the single pass build holds it
+    public int addAll(Collection<? extends CharSequence> words){
+        String[] sorted = this.sortedWords(words, false);
+        wl.lock();
+        try {
+            int added = this.bulkInsert(sorted, 0, sorted.length);
+            this.addSize(added);
+            return added;
+        }finally {
+            wl.unlock();
+        }
+    }
+
+    public boolean remove(CharSequence word){
         this.validateWord(word);
-        word = word.toLowerCase();
-        char c = word.charAt(0);
+        String w = this.normalizer.normalize(word);
+        char c = w.charAt(0);
 
         wl.lock();
         try {
-            if (!this.containsExact(word)) return false;
-            --size;
-            Map<Character, Trie.Node> map = heads.get(c);
-            //Index should be one here since we're passing the node map
-            int removeAt = this.findUniparentalOldestNode(word, map, 1, 0);
-            this.removeNodes(map, word, 1, removeAt);
+            Trie.Node end = this.findNode(w);
+            if (end == null || !end.isWordEnd()) return false;
+            this.addSize(-1);
+            if (this.removeNodes(this.heads.get(c), w, 0)) this.heads.remove(c);
             return true;
         }finally {
             wl.unlock();
@@ -64,33 +86,61 @@ public class SynchronizedTrie extends SequentialTrie implements Trie{
 
     }
 
-    public List<String> startsWith(String prefix){
-        return this.findPrefixes(prefix, false);
+    public List<String> startsWith(CharSequence prefix){
+        rl.lock();
+        try {
+            return this.collectWords(prefix);
+        }finally {
+            rl.unlock();
+        }
+    }
+
+    //The read lock is held until every task is done
+    public List<String> parallelStartsWith(CharSequence prefix){
+        rl.lock();
+        try {
+            return super.parallelStartsWith(prefix);
+        }finally {
+            rl.unlock();
+        }
+    }
+
+    public List<String> topK(CharSequence prefix, int k){
+        rl.lock();
+        try {
+            return super.topK(prefix, k);
+        }finally {
+            rl.unlock();
+        }
+    }
+
+    //Consistent, the words are collected under the read lock up front
+    public Iterator<String> prefixIterator(CharSequence prefix){
+        return this.startsWith(prefix).iterator();
     }
 
     //Checks if a word contains words under this @prefix
-    public boolean containsPrefix(String prefix){
-        return this.findPrefixes(prefix, true).size() > 1;
+    public boolean containsPrefix(CharSequence prefix){
+        return this.countWithPrefix(prefix) > 0;
+    }
+
+    public int countWithPrefix(CharSequence prefix){
+        rl.lock();
+        try {
+            return super.countWithPrefix(prefix);
+        }finally {
+            rl.unlock();
+        }
     }
 
-    public boolean containsExact(String word){
+    public boolean containsExact(CharSequence word){
         this.validateWord(word);
-        word = word.toLowerCase();
-        char c = word.charAt(0);//Don't need to lock on this op si
 
 
         rl.lock();
         try {
-            Map<Character, Trie.Node> currMap = this.heads.get(c);
-            if (word.length() == 1) return this.heads.containsKey(c);
-            if (currMap == null) return false;
-            Trie.Node node = null;
-            for (int i = 1; i < word.length(); i++){
-                node = currMap.get(word.charAt(i));
-                if (node == null) return false; //Ensure this char exists
-                currMap = node.children();
-            }
-            return node.isWordEnd();
+            Trie.Node node = this.lookup(word);
+            return node != null && node.isWordEnd();
         }finally {
             rl.unlock();
         }
@@ -98,25 +148,47 @@ public class SynchronizedTrie extends SequentialTrie implements Trie{
         //Ensure the final node is the word end
     }
 
-    public int size(){
-        return this.size;
+    public List<String> fuzzy(CharSequence word, int maxEdits){
+        rl.lock();
+        try {
+            return super.fuzzy(word, maxEdits);
+        }finally {
+            rl.unlock();
+        }
+    }
+
+    public Trie freeze(){
+        rl.lock();
+        try {
+            return super.freeze();
+        }finally {
+            rl.unlock();
+        }
     }
 
-    List<String> findPrefixes(String prefix, boolean shouldBreak){
-        this.validateWord(prefix);
-        prefix = prefix.toLowerCase();
-        List<String> list = new ArrayList<>();
-        char c = prefix.charAt(0);
+    public Trie copy(){
+        rl.lock();
+        try {
+            return new SynchronizedTrie(this.copyHeads(this.heads.values(), this.layout.newChildren()), this.size, this.layout, this.normalizer);
+        }finally {
+            rl.unlock();
+        }
+    }
 
+    public TrieStats stats(){
         rl.lock();
         try {
-            Map<Character, Trie.Node> nodes = this.heads.get(c);
-            if (nodes == null) return list;
+            return super.stats();
+        }finally {
+            rl.unlock();
+        }
+    }
 
-            String s = Character.toString(c);
-            list.add(s);
-            this.findWords(nodes, list, s, prefix.length() ,shouldBreak);
-            return list;
+    //The parent's size, only written under the write lock, so it's read under the read lock to see the latest write
+    public int size(){
+        rl.lock();
+        try {
+            return this.size;
         }finally {
             rl.unlock();
         }
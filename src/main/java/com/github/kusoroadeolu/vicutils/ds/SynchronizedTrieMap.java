@@ -0,0 +1,93 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+//Keys are normalized outside the lock, computeIfAbsent runs @fn under the write lock so it's called at most once per key
+public class SynchronizedTrieMap<V> extends SequentialTrieMap<V> {
+    private final ReadWriteLock rwl = new ReentrantReadWriteLock();
+    private final Lock rl = rwl.readLock();
+    private final Lock wl = rwl.writeLock();
+
+    public SynchronizedTrieMap(NodeLayout layout, KeyNormalizer normalizer) {
+        super(layout, normalizer);
+    }
+
+    public SynchronizedTrieMap(NodeLayout layout) {
+        this(layout, KeyNormalizer.LOWER_CASE);
+    }
+
+    public SynchronizedTrieMap() {
+        this(NodeLayout.HASHED);
+    }
+
+    public V get(CharSequence key){
+        this.trie.validateWord(key);
+        rl.lock();
+        try {
+            return this.valueOf(this.trie.lookup(key));
+        }finally {
+            rl.unlock();
+        }
+    }
+
+    public V put(CharSequence key, V value){
+        this.trie.validateWord(key);
+        Objects.requireNonNull(value, "value");
+        String k = this.trie.normalizer.normalize(key);
+        wl.lock();
+        try {
+            return this.putValue(k, value);
+        }finally {
+            wl.unlock();
+        }
+    }
+
+    public V computeIfAbsent(CharSequence key, Function<? super String, ? extends V> fn){
+        V value = this.get(key); //Most calls find the value, they only need the read lock
+        if (value != null) return value;
+        String k = this.trie.normalizer.normalize(key);
+        wl.lock();
+        try {
+            return this.computeValue(k, fn);
+        }finally {
+            wl.unlock();
+        }
+    }
+
+    public V remove(CharSequence key){
+        this.trie.validateWord(key);
+        String k = this.trie.normalizer.normalize(key);
+        wl.lock();
+        try {
+            return this.removeValue(k);
+        }finally {
+            wl.unlock();
+        }
+    }
+
+    public List<Map.Entry<String, V>> entries(CharSequence prefix){
+        this.trie.validateWord(prefix);
+        String p = this.trie.normalizer.normalize(prefix);
+        rl.lock();
+        try {
+            return this.collectEntries(p);
+        }finally {
+            rl.unlock();
+        }
+    }
+
+    public int size(){
+        rl.lock();
+        try {
+            return this.size;
+        }finally {
+            rl.unlock();
+        }
+    }
+}
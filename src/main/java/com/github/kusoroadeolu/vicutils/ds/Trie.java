@@ -1,33 +1,73 @@
 package com.github.kusoroadeolu.vicutils.ds;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+//Keys are taken as CharSequences so callers can pass reusable buffers, implementations normalize them per code point, see KeyNormalizer
 public interface Trie {
-    boolean add(String word);
+    boolean add(CharSequence word);
 
-    boolean remove(String word);
+    boolean remove(CharSequence word);
 
-    List<String> startsWith(String prefix);
+    //Adds every word, returning how many weren't already in the trie. Implementations that can load in bulk override this
+    default int addAll(Collection<? extends CharSequence> words){
+        int added = 0;
+        for (CharSequence w : words){
+            if (this.add(w)) ++added;
+        }
+        return added;
+    }
+
+    List<String> startsWith(CharSequence prefix);
 
-    boolean containsPrefix(String prefix);
+    //Lazily iterates the words under this @prefix, implementations that can't walk lazily fall back to startsWith
+    default Iterator<String> prefixIterator(CharSequence prefix){
+        return this.startsWith(prefix).iterator();
+    }
+
+    //A lazy stream over prefixIterator, so short circuiting ops like limit(n) or findFirst() stop the walk early
+    default Stream<String> prefixStream(CharSequence prefix){
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this.prefixIterator(prefix), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
 
-    boolean containsExact(String word);
+    boolean containsPrefix(CharSequence prefix);
+
+    //How many words start with this @prefix, the prefix itself included if it's a word
+    default int countWithPrefix(CharSequence prefix){
+        return this.startsWith(prefix).size();
+    }
+
+    boolean containsExact(CharSequence word);
 
     int size();
 
     Trie copy();
 
+    //An immutable, compact copy of this trie for when it's only read from now on. Writes to the frozen trie throw UnsupportedOperationException
+    Trie freeze();
+
     class Node {
+        private final static int NO_WEIGHT = Integer.MIN_VALUE;
         private final char c;
         private final Map<Character, Node> children;
         private boolean isWordEnd;
+        private int weight; //The word's weight, only meaningful if this is a word end
+        private int maxWeight; //The highest weight of any word in this node's subtree, itself included
+        private int wordCount; //How many words end in this node's subtree, itself included
 
         public Node(char c, Map<Character, Node> children, boolean isWordEnd) {
             this.c = c;
             this.children = children;
             this.isWordEnd = isWordEnd;
+            this.maxWeight = isWordEnd ? 0 : NO_WEIGHT;
+            this.wordCount = isWordEnd ? 1 : 0;
         }
 
 
@@ -37,6 +77,19 @@ public interface Trie {
         public Map<Character, Node> children() { return children; }
         public boolean isWordEnd() { return isWordEnd; }
         public void setWordEnd(boolean wordEnd) { isWordEnd = wordEnd; }
+        public int weight() { return weight; }
+        public void setWeight(int weight) { this.weight = weight; }
+        public int maxWeight() { return maxWeight; }
+        public void raiseMaxWeight(int weight) { maxWeight = Math.max(maxWeight, weight); }
+        public int wordCount() { return wordCount; }
+        public void addWordCount(int delta) { wordCount += delta; }
+
+        //Recomputes the max weight from this node's own word and its children's max weights, for when a word under it was lowered or removed
+        public int recomputeMaxWeight() {
+            int max = isWordEnd ? weight : NO_WEIGHT;
+            for (Node n : children.values()) max = Math.max(max, n.maxWeight);
+            return maxWeight = max;
+        }
 
         @Override
         public boolean equals(Object o) {
@@ -56,6 +109,7 @@ public interface Trie {
                     "c=" + c +
                     ", children=" + children +
                     ", isWordEnd=" + isWordEnd +
+                    ", weight=" + weight +
                     '}';
         }
     }
@@ -0,0 +1,27 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+//A trie whose words carry a value, so looking a word's payload up is the same single descent as checking it's there
+//Keys are normalized the same way the tries normalize words, values can't be null, so a null from get means the key isn't there
+public interface TrieMap<V> {
+    V get(CharSequence key);
+
+    //Returns the value the key had, or null if it's new
+    V put(CharSequence key, V value);
+
+    //The key's value, or if it has none, @fn's value for the normalized key which is then put. Nothing is put if @fn returns null
+    V computeIfAbsent(CharSequence key, Function<? super String, ? extends V> fn);
+
+    //Returns the value the key had, or null if it wasn't there
+    V remove(CharSequence key);
+
+    boolean containsKey(CharSequence key);
+
+    //Every key under this @prefix with its value, the prefix itself included if it's a key
+    List<Map.Entry<String, V>> entries(CharSequence prefix);
+
+    int size();
+}
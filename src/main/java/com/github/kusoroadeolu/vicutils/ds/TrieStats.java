@@ -0,0 +1,8 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import java.util.Map;
+
+//A point in time look at a trie's shape, @maxDepth counts the head as depth 1
+//@wordsPerHead shows skew across heads, @lockWaitNanos is the total time threads have blocked on each head's lock, and is empty for tries that don't lock per head
+public record TrieStats(int nodes, int maxDepth, Map<Character, Integer> wordsPerHead, Map<Character, Long> lockWaitNanos) {
+}
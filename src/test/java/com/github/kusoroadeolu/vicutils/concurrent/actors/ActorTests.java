@@ -56,6 +56,15 @@ class ActorTests {
     }
 
 
+    @Test
+    public void onBurstOfTells_mailBoxShouldNeverReject() {
+        MailBox<Integer> mailBox = new MailBox<>();
+        for (int i = 0; i < 100_000; i++) assertTrue(mailBox.send(i));
+        for (int i = 0; i < 100_000; i++) assertEquals(i, mailBox.receiveOrNull());
+        mailBox.close();
+        assertNull(mailBox.receiveOrNull());
+    }
+
     @Test
     public void onClose_shouldClearSystemCtx(){
         for (int i = 0; i < 100; i++){
@@ -0,0 +1,83 @@
+package com.github.kusoroadeolu.vicutils.concurrent.channels;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//Moves a fixed number of items through a channel with @pairs senders and as many receivers, the lock based BufferedChannel against the lock free ring
+//@batch 1 uses send and receive, anything higher sendAll and receiveBatch, scores are per item either way
+public class BufferedChannelBenchmarks {
+    private final static int ITEMS = 1 << 16;
+    private final static int CAPACITY = 1024;
+
+    @State(Scope.Benchmark)
+    public static class ChannelState {
+        @Param({"buffered", "mpmc"})
+        String impl;
+        @Param({"1", "4", "16", "32"})
+        int pairs;
+        @Param({"1", "16", "256"})
+        int batch;
+        ExecutorService exec;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            exec = Executors.newFixedThreadPool(2 * pairs);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            exec.shutdownNow();
+        }
+
+        Channel<Integer> newChannel() {
+            Channel<Integer> chan = switch (impl) {
+                case "mpmc" -> new MpmcChannel<>(CAPACITY);
+                default -> new BufferedChannel<>(CAPACITY);
+            };
+            chan.make();
+            return chan;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OperationsPerInvocation(ITEMS)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    public void transfer(ChannelState state) {
+        Channel<Integer> chan = state.newChannel();
+        int perThread = ITEMS / state.pairs;
+        List<CompletableFuture<Void>> futures = new ArrayList<>(2 * state.pairs);
+        for (int p = 0; p < state.pairs; p++) {
+            if (state.batch == 1) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < perThread; i++) chan.send(i);
+                }, state.exec));
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < perThread; i++) chan.receive();
+                }, state.exec));
+            } else {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    List<Integer> batch = new ArrayList<>(state.batch);
+                    for (int i = 0; i < perThread; i++) {
+                        batch.add(i);
+                        if (batch.size() == state.batch || i == perThread - 1) {
+                            chan.sendAll(batch);
+                            batch.clear();
+                        }
+                    }
+                }, state.exec));
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int n = 0; n < perThread; ) n += chan.receiveBatch(Math.min(state.batch, perThread - n)).size(); //Never take another receiver's share
+                }, state.exec));
+            }
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    }
+}
@@ -0,0 +1,305 @@
+package com.github.kusoroadeolu.vicutils.concurrent.channels;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RingChannelTest {
+
+    ExecutorService vExec;
+
+    @BeforeEach
+    void setup(){
+        vExec = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    //Every ring channel, the tests only send and receive from one thread each unless they say otherwise
+    private static List<Channel<Integer>> channels(int capacity){
+        return List.of(Channel.mpmc(capacity), Channel.mpsc(capacity), Channel.spsc(capacity));
+    }
+
+    @Test
+    void lifecycle_shouldFollowNilOpenClosed(){
+        for (Channel<Integer> chan : channels(4)){
+            assertFalse(chan.ok());
+            assertEquals(0, chan.capacity());
+            assertThrows(ChannelNilException.class, () -> chan.send(1));
+            assertTrue(chan.tryReceive().isEmpty());
+            chan.make();
+            assertTrue(chan.ok());
+            assertEquals(4, chan.capacity());
+            chan.close();
+            assertThrows(ChannelClosedException.class, () -> chan.send(1));
+            assertThrows(ChannelClosedException.class, chan::close);
+            assertTrue(chan.receive().isEmpty());
+        }
+    }
+
+    @Test
+    void onFull_sendShouldWaitForAReceive() throws Exception {
+        for (Channel<Integer> chan : channels(2)){
+            chan.make();
+            assertTrue(chan.trySend(1));
+            assertTrue(chan.trySend(2));
+            assertFalse(chan.trySend(3));
+
+            CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> chan.send(3), vExec);
+            Thread.sleep(50);
+            assertFalse(blocked.isDone());
+            assertEquals(1, chan.receive().orElseThrow());
+            blocked.get(5, TimeUnit.SECONDS);
+            assertEquals(2, chan.receive().orElseThrow());
+            assertEquals(3, chan.receive().orElseThrow());
+            assertTrue(chan.isEmpty());
+        }
+    }
+
+    @Test
+    void onClose_receiversShouldDrainThenGetEmpty(){
+        for (Channel<Integer> chan : channels(8)){
+            chan.make();
+            for (int i = 0; i < 5; i++) chan.send(i);
+            chan.close();
+
+            List<Integer> drained = new ArrayList<>();
+            Optional<Integer> opt;
+            while ((opt = chan.receive()).isPresent()) drained.add(opt.get());
+            assertEquals(List.of(0, 1, 2, 3, 4), drained);
+        }
+    }
+
+    @Test
+    void onClose_parkedReceiversShouldWake() throws Exception {
+        for (Channel<Integer> chan : channels(1)){
+            chan.make();
+            CompletableFuture<Optional<Integer>> parked = CompletableFuture.supplyAsync(chan::receive, vExec);
+            Thread.sleep(50);
+            assertFalse(parked.isDone());
+            chan.close();
+            assertTrue(parked.get(5, TimeUnit.SECONDS).isEmpty());
+        }
+    }
+
+    @Test
+    void stressTest_manySendersAndReceivers_shouldLoseNothing(){
+        this.transfer(Channel.mpmc(16), 8, 8);
+    }
+
+    @Test
+    void stressTest_manySendersOneReceiver_shouldLoseNothing(){
+        this.transfer(Channel.mpsc(16), 8, 1);
+    }
+
+    @Test
+    void stressTest_manySendersOneReceiver_onUnboundedMpsc_shouldLoseNothing(){
+        this.transfer(Channel.mpsc(), 8, 1);
+    }
+
+    @Test
+    void onUnboundedMpsc_sendShouldNeverBeRejected(){
+        Channel<Integer> chan = Channel.mpsc();
+        chan.make();
+        assertEquals(Integer.MAX_VALUE, chan.capacity());
+        for (int i = 0; i < 10_000; i++) assertTrue(chan.trySend(i));
+        chan.sendAll(List.of(10_000, 10_001));
+        assertEquals(10_002, chan.length());
+        chan.close();
+
+        List<Integer> received = new ArrayList<>();
+        List<Integer> batch;
+        while (!(batch = chan.receiveBatch(64)).isEmpty()) received.addAll(batch);
+        assertEquals(10_002, received.size());
+        for (int i = 0; i < received.size(); i++) assertEquals(i, received.get(i));
+        assertTrue(chan.isEmpty());
+    }
+
+    @Test
+    void stressTest_oneSenderOneReceiver_shouldKeepOrder(){
+        Channel<Integer> chan = Channel.spsc(8);
+        chan.make();
+        CompletableFuture<Void> sender = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 50_000; i++) chan.send(i);
+            chan.close();
+        }, vExec);
+
+        int expected = 0;
+        Optional<Integer> opt;
+        while ((opt = chan.receive()).isPresent()) assertEquals(expected++, opt.get());
+        sender.join();
+        assertEquals(50_000, expected);
+    }
+
+    @Test
+    void onSendAll_shouldMoveBatchesLargerThanTheRing(){
+        for (Channel<Integer> chan : channels(8)){
+            chan.make();
+            List<Integer> vals = new ArrayList<>();
+            for (int i = 0; i < 1_000; i++) vals.add(i);
+            CompletableFuture<Void> sender = CompletableFuture.runAsync(() -> {
+                chan.sendAll(vals);
+                chan.close();
+            }, vExec);
+
+            List<Integer> received = new ArrayList<>();
+            List<Integer> batch;
+            while (!(batch = chan.receiveBatch(32)).isEmpty()) {
+                assertTrue(batch.size() <= 8);
+                received.addAll(batch);
+            }
+
+            sender.join();
+            assertEquals(vals, received);
+        }
+    }
+
+    @Test
+    void onDrainTo_shouldNotBlock_andRespectMax(){
+        for (Channel<Integer> chan : channels(4)){
+            List<Integer> dst = new ArrayList<>();
+            assertEquals(0, chan.drainTo(dst, 4)); //Nil
+            chan.make();
+            assertEquals(0, chan.drainTo(dst, 4));
+            chan.sendAll(List.of(1, 2, 3));
+            assertEquals(2, chan.drainTo(dst, 2));
+            assertEquals(1, chan.drainTo(dst, 4));
+            assertEquals(List.of(1, 2, 3), dst);
+            assertThrows(NullPointerException.class, () -> chan.sendAll(Arrays.asList(4, null)));
+            assertTrue(chan.isEmpty());
+        }
+    }
+
+    @Test
+    void onTryReceiveWithAction_shouldTellEmptyFromClosed(){
+        for (Channel<Integer> chan : channels(4)){
+            List<Integer> received = new ArrayList<>();
+            assertEquals(ChannelResult.EMPTY, chan.tryReceive(received::add)); //Nil
+            chan.make();
+            assertEquals(ChannelResult.EMPTY, chan.tryReceive(received::add));
+            assertNull(chan.tryReceiveOrNull());
+            chan.send(1);
+            chan.send(2);
+            chan.close();
+            assertEquals(ChannelResult.RECEIVED, chan.tryReceive(received::add));
+            assertEquals(2, chan.receiveOrNull());
+            assertEquals(ChannelResult.CLOSED, chan.tryReceive(received::add));
+            assertNull(chan.receiveOrNull());
+            assertEquals(List.of(1), received);
+        }
+    }
+
+    @Test
+    void onTimedSendAndReceive_shouldTimeOutOnFullOrEmpty() throws Exception {
+        for (Channel<Integer> chan : channels(1)){
+            List<Integer> received = new ArrayList<>();
+            chan.make();
+            assertEquals(ChannelResult.TIMED_OUT, chan.receive(Duration.ofMillis(20), received::add));
+            for (int i = 1; i <= chan.capacity(); i++) assertTrue(chan.send(i, Duration.ofMillis(20)));
+            assertFalse(chan.send(0, Duration.ofMillis(20)));
+            chan.drainTo(new ArrayList<>(), chan.capacity() - 1);
+            assertEquals(ChannelResult.RECEIVED, chan.receive(Duration.ofMillis(20), received::add));
+
+            CompletableFuture<ChannelResult> parked = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return chan.receive(Duration.ofSeconds(5), received::add);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }, vExec);
+            Thread.sleep(50);
+            chan.close();
+            assertEquals(ChannelResult.CLOSED, parked.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of(chan.capacity()), received); //The newest, the rest were drained
+        }
+    }
+
+    @Test
+    void onInterrupt_interruptibleReceive_shouldThrow() throws Exception {
+        for (Channel<Integer> chan : channels(1)){
+            chan.make();
+            CompletableFuture<Class<?>> receiver = new CompletableFuture<>();
+            Thread r = Thread.startVirtualThread(() -> {
+                try {
+                    chan.receiveInterruptibly();
+                    receiver.complete(null);
+                } catch (InterruptedException e) {
+                    receiver.complete(e.getClass());
+                }
+            });
+            Thread.sleep(50);
+            r.interrupt();
+            assertEquals(InterruptedException.class, receiver.get(5, TimeUnit.SECONDS));
+            chan.sendInterruptibly(1);
+            assertEquals(1, chan.receiveInterruptibly().orElseThrow());
+        }
+    }
+
+    @Test
+    void stressTest_batchSendersAndReceivers_shouldLoseNothing(){
+        Channel<Integer> chan = Channel.mpmc(16);
+        chan.make();
+        int senders = 4, perSender = 5_000;
+        AtomicLong sum = new AtomicLong();
+        AtomicLong count = new AtomicLong();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int s = 0; s < senders; s++){
+            futures.add(CompletableFuture.runAsync(() -> {
+                List<Integer> batch = new ArrayList<>();
+                for (int i = 1; i <= perSender; i++) {
+                    batch.add(i);
+                    if (batch.size() == 10) {
+                        chan.sendAll(batch);
+                        batch.clear();
+                    }
+                }
+            }, vExec));
+        }
+        for (int r = 0; r < 4; r++){
+            futures.add(CompletableFuture.runAsync(() -> {
+                List<Integer> batch;
+                while (!(batch = chan.receiveBatch(7)).isEmpty()) {
+                    for (int v : batch) sum.addAndGet(v);
+                    count.addAndGet(batch.size());
+                }
+            }, vExec));
+        }
+
+        CompletableFuture.allOf(futures.subList(0, senders).toArray(CompletableFuture[]::new)).join();
+        chan.close();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        assertEquals((long) senders * perSender, count.get());
+        assertEquals((long) senders * perSender * (perSender + 1) / 2, sum.get());
+    }
+
+    //Every sender sends 1..perSender, receivers split the total between them
+    void transfer(Channel<Integer> chan, int senders, int receivers){
+        chan.make();
+        int perSender = 5_000;
+        int total = senders * perSender;
+        AtomicLong sum = new AtomicLong();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int s = 0; s < senders; s++){
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int i = 1; i <= perSender; i++) chan.send(i);
+            }, vExec));
+        }
+        for (int r = 0; r < receivers; r++){
+            final int share = total / receivers + (r < total % receivers ? 1 : 0);
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < share; i++) sum.addAndGet(chan.receive().orElseThrow());
+            }, vExec));
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        assertEquals((long) senders * perSender * (perSender + 1) / 2, sum.get());
+        assertTrue(chan.isEmpty());
+    }
+}
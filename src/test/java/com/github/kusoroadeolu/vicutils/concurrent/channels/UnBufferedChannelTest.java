@@ -4,7 +4,9 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.*;
@@ -200,6 +202,182 @@ public class UnBufferedChannelTest{
 
     }
 
+    @Test
+    void onSendAll_unBuffered_shouldHandOffEachValue(){
+        Channel<Integer> chan = new UnBufferedChannel<>();
+        chan.make();
+        CompletableFuture<Void> sender = CompletableFuture.runAsync(() -> chan.sendAll(List.of(1, 2, 3)), vExec);
+
+        List<Integer> received = new ArrayList<>();
+        while (received.size() < 3) received.addAll(chan.receiveBatch(8)); //Never more than one at a time, the buffer only holds one
+        sender.join();
+        assertEquals(List.of(1, 2, 3), received);
+        assertTrue(chan.isEmpty());
+    }
+
+    @Test
+    void onSendAll_buffered_shouldFillThenWaitForReceivers(){
+        Channel<Integer> chan = new BufferedChannel<>(4);
+        chan.make();
+        List<Integer> vals = new ArrayList<>();
+        for (int i = 0; i < 100; i++) vals.add(i);
+        CompletableFuture<Void> sender = CompletableFuture.runAsync(() -> chan.sendAll(vals), vExec);
+
+        List<Integer> received = new ArrayList<>();
+        while (received.size() < 100) {
+            List<Integer> batch = chan.receiveBatch(16);
+            assertTrue(batch.size() <= 4);
+            received.addAll(batch);
+        }
+
+        sender.join();
+        assertEquals(vals, received);
+    }
+
+    @Test
+    void onDrainTo_shouldNotBlock_andRespectMax(){
+        Channel<Integer> chan = new BufferedChannel<>(8);
+        List<Integer> dst = new ArrayList<>();
+        assertEquals(0, chan.drainTo(dst, 8)); //Nil
+        chan.make();
+        assertEquals(0, chan.drainTo(dst, 8));
+        chan.sendAll(List.of(1, 2, 3, 4, 5));
+        assertEquals(3, chan.drainTo(dst, 3));
+        assertEquals(List.of(1, 2, 3), dst);
+        chan.close();
+        assertEquals(List.of(4, 5), chan.receiveBatch(8));
+        assertTrue(chan.receiveBatch(8).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> chan.drainTo(dst, -1));
+    }
+
+    @Test
+    void onSendAll_withANull_shouldSendNothing(){
+        Channel<Integer> chan = new BufferedChannel<>(8);
+        chan.make();
+        assertThrows(NullPointerException.class, () -> chan.sendAll(Arrays.asList(1, null, 3)));
+        assertTrue(chan.isEmpty());
+    }
+
+    @Test
+    void onTryReceiveWithAction_shouldTellEmptyFromClosed(){
+        Channel<Integer> chan = new BufferedChannel<>(4);
+        List<Integer> received = new ArrayList<>();
+        assertEquals(ChannelResult.EMPTY, chan.tryReceive(received::add)); //Nil
+        chan.make();
+        assertEquals(ChannelResult.EMPTY, chan.tryReceive(received::add));
+        chan.send(1);
+        chan.send(2);
+        chan.close();
+        assertEquals(ChannelResult.RECEIVED, chan.tryReceive(received::add));
+        assertEquals(2, chan.tryReceiveOrNull());
+        assertEquals(ChannelResult.CLOSED, chan.tryReceive(received::add));
+        assertEquals(List.of(1), received);
+        assertNull(chan.receiveOrNull());
+    }
+
+    @Test
+    void onReceiveOrNull_shouldWaitForTheSentValue(){
+        Channel<Integer> chan = new UnBufferedChannel<>();
+        chan.make();
+        assertNull(chan.tryReceiveOrNull());
+        CompletableFuture<Void> sender = CompletableFuture.runAsync(() -> chan.send(7), vExec);
+        assertEquals(7, chan.receiveOrNull());
+        sender.join();
+        chan.close();
+        assertNull(chan.receiveOrNull());
+    }
+
+    @Test
+    void onTimedSend_unBuffered_shouldTakeBackAValueNoOneReceived() throws Exception {
+        Channel<Integer> chan = new UnBufferedChannel<>();
+        chan.make();
+        assertFalse(chan.send(1, Duration.ofMillis(50)));
+        assertTrue(chan.isEmpty());
+
+        CompletableFuture<Boolean> sender = CompletableFuture.supplyAsync(() -> {
+            try {
+                return chan.send(2, Duration.ofSeconds(5));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }, vExec);
+        assertEquals(2, chan.receive().orElseThrow());
+        assertTrue(sender.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void onTimedSend_unBuffered_zeroTimeout_shouldSucceedOnlyIfAReceiverIsWaiting() throws Exception {
+        Channel<Integer> chan = new UnBufferedChannel<>();
+        chan.make();
+        assertFalse(chan.send(1, Duration.ZERO));
+        assertTrue(chan.isEmpty());
+
+        CompletableFuture<Integer> receiver = CompletableFuture.supplyAsync(() -> chan.receive().orElseThrow(), vExec);
+        Thread.sleep(50); //Let it park
+        assertTrue(chan.send(2, Duration.ZERO));
+        assertEquals(2, receiver.get(5, TimeUnit.SECONDS));
+        assertFalse(chan.send(3, Duration.ZERO));
+    }
+
+    @Test
+    void onTimedSend_buffered_shouldTimeOutOnlyWhenFull() throws Exception {
+        Channel<Integer> chan = new BufferedChannel<>(1);
+        chan.make();
+        assertTrue(chan.send(1, Duration.ofMillis(50)));
+        assertFalse(chan.send(2, Duration.ofMillis(50)));
+        assertEquals(1, chan.length());
+    }
+
+    @Test
+    void onTimedReceive_shouldTellTimeoutFromClosed() throws Exception {
+        Channel<Integer> chan = new BufferedChannel<>(2);
+        List<Integer> received = new ArrayList<>();
+        assertEquals(ChannelResult.TIMED_OUT, chan.receive(Duration.ofMillis(20), received::add)); //Nil
+        chan.make();
+        assertEquals(ChannelResult.TIMED_OUT, chan.receive(Duration.ofMillis(20), received::add));
+        vExec.submit(() -> {
+            Thread.sleep(50);
+            chan.send(1);
+            return null;
+        });
+        assertEquals(ChannelResult.RECEIVED, chan.receive(Duration.ofSeconds(5), received::add));
+        chan.close();
+        assertEquals(ChannelResult.CLOSED, chan.receive(Duration.ofSeconds(5), received::add));
+        assertEquals(List.of(1), received);
+    }
+
+    @Test
+    void onInterrupt_interruptibleSendAndReceive_shouldThrow() throws Exception {
+        Channel<Integer> chan = new UnBufferedChannel<>();
+        chan.make();
+        CompletableFuture<Class<?>> sender = new CompletableFuture<>();
+        Thread s = Thread.startVirtualThread(() -> {
+            try {
+                chan.sendInterruptibly(1);
+                sender.complete(null);
+            } catch (InterruptedException e) {
+                sender.complete(e.getClass());
+            }
+        });
+        Thread.sleep(50);
+        s.interrupt();
+        assertEquals(InterruptedException.class, sender.get(5, TimeUnit.SECONDS));
+        assertTrue(chan.isEmpty()); //Taken back, no one received it
+
+        CompletableFuture<Class<?>> receiver = new CompletableFuture<>();
+        Thread r = Thread.startVirtualThread(() -> {
+            try {
+                chan.receiveInterruptibly();
+                receiver.complete(null);
+            } catch (InterruptedException e) {
+                receiver.complete(e.getClass());
+            }
+        });
+        Thread.sleep(50);
+        r.interrupt();
+        assertEquals(InterruptedException.class, receiver.get(5, TimeUnit.SECONDS));
+    }
+
 //    @Test
 //    void pingPong_aValue_onTwoThreads() throws InterruptedException {
 //        Channel<Integer> chan = new UnBufferedChannel<>();
@@ -13,12 +13,17 @@ public class ConcurrentTrieBenchmark {
 
     @State(Scope.Benchmark)
     public static class TrieState {
+        @Param({"striped", "lockFree"})
+        String impl;
         Trie trie;
 
 
         @Setup(Level.Iteration)
         public void setup() {
-            trie = new ConcurrentTrie(); //Global lock
+            trie = switch (impl) {
+                case "lockFree" -> new LockFreeTrie();
+                default -> new ConcurrentTrie(); //Lock per head character
+            };
         }
     }
 
@@ -39,6 +44,18 @@ public class ConcurrentTrieBenchmark {
             }
             return sb.toString();
         }
+
+        // Skewed - most words land under a handful of heads, which all share the 'a' lock in ConcurrentTrie
+        public String generateHotWord() {
+            if (random.nextInt(10) >= 7) return generateWord();
+            String prefix = hotPrefixes[random.nextInt(hotPrefixes.length)];
+            int length = 1 + random.nextInt(8);
+            StringBuilder sb = new StringBuilder(prefix);
+            for (int i = 0; i < length; i++) {
+                sb.append((char)('a' + random.nextInt(26)));
+            }
+            return sb.toString();
+        }
     }
 
     @Benchmark
@@ -50,6 +67,33 @@ public class ConcurrentTrieBenchmark {
         state.trie.add(gen.generateWord()); // 100% writes, evenly distributed
 
     }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(warmups = 2, value = 2)
+    @Measurement(iterations = 5)
+    @Threads(8)
+    public void hotAdd8(TrieState state, WordGenerator gen) {
+        state.trie.add(gen.generateHotWord()); // 100% writes, skewed to a few heads
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(warmups = 2, value = 2)
+    @Measurement(iterations = 5)
+    @Threads(32)
+    public void hotAdd32(TrieState state, WordGenerator gen) {
+        state.trie.add(gen.generateHotWord());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(warmups = 2, value = 2)
+    @Measurement(iterations = 5)
+    @Threads(64)
+    public void hotAdd64(TrieState state, WordGenerator gen) {
+        state.trie.add(gen.generateHotWord());
+    }
 }
 
 class TrieRunner{
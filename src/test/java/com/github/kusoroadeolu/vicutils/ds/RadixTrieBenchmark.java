@@ -0,0 +1,85 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//URL path like keys, long unbranched runs under a few shared segments
+//Node counts are printed on setup, run with -prof gc and the gc.alloc.rate.norm of build is roughly the heap each trie retains
+public class RadixTrieBenchmark {
+    private final static int WORDS = 100_000;
+    private final static String[] SEGMENTS = {"api", "v1", "v2", "users", "orders", "invoices", "settings", "internal", "health"};
+
+    @State(Scope.Benchmark)
+    public static class Keys {
+        String[] keys;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            keys = new String[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                StringBuilder sb = new StringBuilder();
+                int segments = 2 + random.nextInt(3);
+                for (int j = 0; j < segments; j++) {
+                    sb.append('/').append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+                }
+                sb.append('/').append(Long.toHexString(random.nextLong())).append("/details");
+                keys[i] = sb.toString();
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LoadedTrie {
+        @Param({"perChar", "radix"})
+        String impl;
+        Trie trie;
+
+        @Setup(Level.Trial)
+        public void setup(Keys keys) {
+            trie = newTrie(impl);
+            for (String k : keys.keys) trie.add(k);
+            int nodes = trie instanceof RadixTrie radix ? radix.nodeCount() : countNodes((SequentialTrie) trie);
+            System.out.println(impl + " nodes: " + nodes);
+        }
+    }
+
+    static Trie newTrie(String impl) {
+        return impl.equals("radix") ? new RadixTrie() : new SequentialTrie(NodeLayout.COMPACT);
+    }
+
+    static int countNodes(SequentialTrie trie) {
+        int count = 0;
+        for (Trie.Node head : trie.heads.values()) count += countNodes(head);
+        return count;
+    }
+
+    static int countNodes(Trie.Node node) {
+        int count = 1;
+        for (Trie.Node n : node.children().values()) count += countNodes(n);
+        return count;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Fork(value = 2)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public Trie build(LoadedTrie state, Keys keys) {
+        Trie trie = newTrie(state.impl);
+        for (String k : keys.keys) trie.add(k);
+        return trie;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    public boolean containsExact(LoadedTrie state, Keys keys) {
+        return state.trie.containsExact(keys.keys[ThreadLocalRandom.current().nextInt(WORDS)]);
+    }
+}
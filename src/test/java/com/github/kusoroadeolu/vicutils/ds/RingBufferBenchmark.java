@@ -0,0 +1,106 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import org.openjdk.jmh.annotations.*;
+
+//The lock based ring against the lock free one, adds on their own, then one producer racing readers of the newest element
+//Also a batch of adds one lock at a time against one addAll
+public class RingBufferBenchmark {
+    private final static int CAPACITY = 1024;
+
+    @State(Scope.Group)
+    public static class BufferState {
+        RingBuffer<Long> locked;
+        LockFreeRingBuffer<Long> lockFree;
+        long next;
+        Long[] batch;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            locked = new RingBuffer<>(CAPACITY);
+            lockFree = new LockFreeRingBuffer<>(CAPACITY);
+            for (long i = 0; i < CAPACITY; i++) {
+                locked.add(i);
+                lockFree.add(i);
+            }
+
+            batch = new Long[64];
+            for (int i = 0; i < batch.length; i++) batch[i] = (long) i;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    @Group("lockedAdd")
+    public Long lockedAdd(BufferState state) {
+        return state.locked.add(state.next++);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    @Group("lockFreeAdd")
+    public Long lockFreeAdd(BufferState state) {
+        return state.lockFree.add(state.next++);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    @Group("locked")
+    @GroupThreads(1)
+    public Long lockedProducer(BufferState state) {
+        return state.locked.add(state.next++);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    @Group("locked")
+    @GroupThreads(3)
+    public Long lockedReader(BufferState state) {
+        return state.locked.getLast();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    @Group("lockFree")
+    @GroupThreads(1)
+    public Long lockFreeProducer(BufferState state) {
+        return state.lockFree.add(state.next++);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    @Group("lockFree")
+    @GroupThreads(3)
+    public Long lockFreeReader(BufferState state) {
+        return state.lockFree.getLast();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    @Group("batchAdd")
+    public void batchAdd(BufferState state) {
+        for (Long l : state.batch) state.locked.add(l);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    @Group("batchAddAll")
+    public void batchAddAll(BufferState state) {
+        state.locked.addAll(state.batch, 0, state.batch.length);
+    }
+}
@@ -2,6 +2,17 @@ package com.github.kusoroadeolu.vicutils.ds;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class RingBufferTest {
@@ -40,4 +51,183 @@ class RingBufferTest {
             assertEquals(++idx, i);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void lockFree_shouldOverwriteTheOldestInOrder(){
+        LockFreeRingBuffer<Integer> ringBuffer = new LockFreeRingBuffer<>(3); //Rounded up to 4
+        assertNull(ringBuffer.head());
+        for (int i = 0; i < 6; ++i){
+            assertEquals(i < 4 ? null : i - 4, ringBuffer.add(i));
+        }
+
+        assertEquals(4, ringBuffer.capacity());
+        assertEquals(4, ringBuffer.size());
+        assertEquals(2, ringBuffer.head());
+        assertEquals(5, ringBuffer.getLast());
+        assertEquals(3, ringBuffer.get(1));
+
+        int expected = 2;
+        for (int i : ringBuffer){
+            assertEquals(expected++, i);
+        }
+        assertEquals(6, expected);
+    }
+
+    @Test
+    public void lockFree_readersShouldOnlySeePublishedValues() throws InterruptedException {
+        LockFreeRingBuffer<Long> ringBuffer = new LockFreeRingBuffer<>(16);
+        Thread producer = Thread.ofPlatform().start(() -> {
+            for (long i = 0; i < 200_000; ++i) ringBuffer.add(i);
+        });
+
+        while (producer.isAlive()){
+            long sequence = ringBuffer.sequence();
+            Long last = ringBuffer.getLast();
+            if (last != null) assertTrue(last >= sequence - 1); //Never an older lap's value
+            long prev = -1;
+            for (long v : ringBuffer){
+                assertTrue(v > prev);
+                prev = v;
+            }
+        }
+
+        producer.join();
+        assertEquals(199_999L, ringBuffer.getLast());
+        assertEquals(199_984L, ringBuffer.head());
+    }
+
+    @Test
+    public void primitive_shouldKeepARollingWindow(){
+        LongRingBuffer longs = new LongRingBuffer(4);
+        for (long i = 1; i <= 6; ++i){
+            assertEquals(i > 4, longs.add(i * 10));
+        }
+
+        assertArrayEquals(new long[]{30, 40, 50, 60}, longs.toArray());
+        assertEquals(30, longs.head());
+        assertEquals(60, longs.getLast());
+        assertEquals(180, longs.sum());
+        assertEquals(30, longs.min());
+        assertEquals(60, longs.max());
+        assertEquals(40, longs.percentile(50));
+        assertEquals(60, longs.percentile(100));
+        assertEquals(30, longs.percentile(0));
+
+        IntRingBuffer ints = new IntRingBuffer(3);
+        ints.add(Integer.MAX_VALUE);
+        ints.add(Integer.MAX_VALUE);
+        assertEquals(2L * Integer.MAX_VALUE, ints.sum());
+        assertEquals(2, ints.size());
+
+        LongRingBuffer zeros = new LongRingBuffer(1);
+        assertFalse(zeros.add(0));
+        assertTrue(zeros.add(0)); //A real 0 was overwritten, not nothing
+
+        DoubleRingBuffer doubles = new DoubleRingBuffer(5);
+        for (double d : new double[]{5.5, 1.5, 4.5, 2.5, 3.5}) doubles.add(d);
+        assertEquals(4.5, doubles.percentile(80));
+        assertEquals(1.5, doubles.min());
+        assertThrows(NoSuchElementException.class, () -> new DoubleRingBuffer(1).max());
+    }
+
+    @Test
+    public void batchOps_shouldMatchSingleAddsInLogicalOrder(){
+        RingBuffer<Integer> batched = new RingBuffer<>(3);
+        RingBuffer<Integer> single = new RingBuffer<>(3);
+        Integer[] src = {0, 1, 2, 3, 4, 5, 6};
+        batched.addAll(src, 1, 5);
+        for (int i = 1; i < 6; ++i) single.add(i);
+        assertArrayEquals(single.toArray(), batched.toArray());
+
+        Integer[] dst = new Integer[3];
+        assertEquals(3, batched.copyTo(dst));
+        assertArrayEquals(new Integer[]{3, 4, 5}, dst);
+
+        batched.addAll(src, 6, 1);
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, batched.drainTo(drained));
+        assertEquals(List.of(4, 5, 6), drained);
+        assertEquals(0, batched.copyTo(new Integer[0]));
+
+        batched.add(7);
+        assertEquals(1, batched.copyTo(dst));
+        assertEquals(7, dst[0]);
+    }
+
+    @Test
+    public void offHeap_shouldKeepRecordsAcrossReopens() throws IOException {
+        MemoryLayout layout = MemoryLayout.structLayout(ValueLayout.JAVA_LONG.withName("id"), ValueLayout.JAVA_INT.withName("code"));
+        Path dir = Files.createTempDirectory("ring");
+        Path file = dir.resolve("journal.ring");
+        try {
+            try (OffHeapRingBuffer ring = OffHeapRingBuffer.mapped(file, layout, 3)){
+                assertNull(ring.head());
+                for (long i = 0; i < 5; ++i){
+                    final long id = i;
+                    assertEquals(i, ring.add(slot -> {
+                        slot.set(ValueLayout.JAVA_LONG, 0, id);
+                        slot.set(ValueLayout.JAVA_INT, 8, (int) id * 10);
+                    }));
+                }
+
+                assertEquals(3, ring.size());
+                assertEquals(2, ring.head().get(ValueLayout.JAVA_LONG, 0));
+                assertEquals(40, ring.getLast().get(ValueLayout.JAVA_INT, 8));
+                ring.force();
+            }
+
+            try (OffHeapRingBuffer ring = OffHeapRingBuffer.mapped(file, layout, 3); Arena arena = Arena.ofConfined()){
+                assertEquals(3, ring.size());
+                long expected = 2;
+                for (MemorySegment record : ring){
+                    assertEquals(expected++, record.get(ValueLayout.JAVA_LONG, 0));
+                }
+                assertEquals(5, expected);
+
+                MemorySegment record = arena.allocate(layout);
+                record.set(ValueLayout.JAVA_LONG, 0, 5);
+                assertEquals(5, ring.add(record));
+                MemorySegment copy = arena.allocate(layout);
+                ring.copyTo(0, copy);
+                assertEquals(3, copy.get(ValueLayout.JAVA_LONG, 0));
+                assertThrows(IndexOutOfBoundsException.class, () -> ring.get(3));
+            }
+
+            long size = Files.size(file);
+            assertThrows(IOException.class, () -> OffHeapRingBuffer.mapped(file, layout, 4));
+            MemoryLayout sameSize = MemoryLayout.sequenceLayout(3, ValueLayout.JAVA_INT); //12 bytes like @layout, but a 12 byte stride instead of 16
+            assertThrows(IOException.class, () -> OffHeapRingBuffer.mapped(file, sameSize, 3));
+            assertEquals(size, Files.size(file)); //A failed open leaves the file alone
+            try (OffHeapRingBuffer ring = OffHeapRingBuffer.mapped(file, layout, 3)){
+                assertEquals(3, ring.size());
+                assertEquals(5, ring.getLast().get(ValueLayout.JAVA_LONG, 0));
+            }
+        }finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+
+        try (OffHeapRingBuffer ring = new OffHeapRingBuffer(ValueLayout.JAVA_LONG, 2)){
+            ring.add(slot -> slot.set(ValueLayout.JAVA_LONG, 0, 7L));
+            assertEquals(7, ring.getLast().get(ValueLayout.JAVA_LONG, 0));
+        }
+    }
+
+    @Test
+    public void offHeap_onAFailedOverwrite_shouldNotCountTheTornSlot(){
+        try (OffHeapRingBuffer ring = new OffHeapRingBuffer(ValueLayout.JAVA_LONG, 2)){
+            ring.add(slot -> slot.set(ValueLayout.JAVA_LONG, 0, 1L));
+            ring.add(slot -> slot.set(ValueLayout.JAVA_LONG, 0, 2L));
+            assertThrows(IllegalStateException.class, () -> ring.add(slot -> {
+                slot.set(ValueLayout.JAVA_LONG, 0, -1L); //Half written over the oldest record, then the writer dies
+                throw new IllegalStateException();
+            }));
+
+            assertEquals(1, ring.size());
+            assertEquals(2, ring.head().get(ValueLayout.JAVA_LONG, 0));
+            assertEquals(2, ring.add(slot -> slot.set(ValueLayout.JAVA_LONG, 0, 3L)));
+            assertEquals(2, ring.head().get(ValueLayout.JAVA_LONG, 0));
+            assertEquals(3, ring.getLast().get(ValueLayout.JAVA_LONG, 0));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+//Startup cost of loading a dictionary, a million words one add at a time against a single addAll, and against opening a mapped trie file
+public class TrieBulkLoadBenchmark {
+    private final static int WORDS = 1_000_000;
+
+    @State(Scope.Benchmark)
+    public static class Corpus {
+        @Param({"sequential", "synchronized", "concurrent"})
+        String impl;
+        List<String> words;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            words = new ArrayList<>(WORDS);
+            for (int i = 0; i < WORDS; i++) {
+                int length = 4 + random.nextInt(8);
+                StringBuilder sb = new StringBuilder(length);
+                for (int j = 0; j < length; j++) {
+                    sb.append((char)('a' + random.nextInt(26)));
+                }
+                words.add(sb.toString());
+            }
+        }
+
+        Trie newTrie() {
+            return switch (impl) {
+                case "sequential" -> new SequentialTrie(NodeLayout.COMPACT);
+                case "synchronized" -> new SynchronizedTrie(NodeLayout.COMPACT);
+                default -> new ConcurrentTrie(NodeLayout.COMPACT);
+            };
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class TrieFile {
+        Path file;
+
+        @Setup(Level.Trial)
+        public void setup(Corpus corpus) throws IOException {
+            file = Files.createTempFile("words", ".trie");
+            Trie trie = new SequentialTrie(NodeLayout.COMPACT);
+            trie.addAll(corpus.words);
+            MappedTrie.write(trie, file);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Fork(value = 2)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public Trie addEach(Corpus corpus) {
+        Trie trie = corpus.newTrie();
+        for (String w : corpus.words) trie.add(w);
+        return trie;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Fork(value = 2)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public Trie addAll(Corpus corpus) {
+        Trie trie = corpus.newTrie();
+        trie.addAll(corpus.words);
+        return trie;
+    }
+
+    //Open and answer a first lookup, the pages it touches are the only ones read
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Fork(value = 2)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public boolean openMapped(TrieFile trieFile, Corpus corpus) throws IOException {
+        try (MappedTrie trie = MappedTrie.open(trieFile.file)) {
+            return trie.containsExact(corpus.words.get(0));
+        }
+    }
+}
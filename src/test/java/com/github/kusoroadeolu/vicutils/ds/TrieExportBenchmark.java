@@ -0,0 +1,51 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+//Exports every word under one letter, the single threaded walk against the fork join one
+public class TrieExportBenchmark {
+    private final static int WORDS = 1_000_000;
+
+    @State(Scope.Benchmark)
+    public static class TrieState {
+        SequentialTrie trie;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            List<String> list = new ArrayList<>(WORDS);
+            for (int i = 0; i < WORDS; i++) {
+                int length = 4 + random.nextInt(8);
+                StringBuilder sb = new StringBuilder(length);
+                sb.append('a');
+                for (int j = 1; j < length; j++) {
+                    sb.append((char)('a' + random.nextInt(26)));
+                }
+                list.add(sb.toString());
+            }
+
+            trie = new SequentialTrie(NodeLayout.COMPACT);
+            trie.addAll(list);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    public List<String> startsWith(TrieState state) {
+        return state.trie.startsWith("a");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    public List<String> parallelStartsWith(TrieState state) {
+        return state.trie.parallelStartsWith("a");
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//Spell correction, every word within one or two edits of a misspelt query, a trie walk pruned by its Levenshtein row against scanning the whole word list
+public class TrieFuzzyBenchmark {
+    private final static int WORDS = 200_000;
+
+    @State(Scope.Benchmark)
+    public static class Dictionary {
+        @Param({"1", "2"})
+        int maxEdits;
+        SequentialTrie trie;
+        String[] words;
+        String[] queries;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            List<String> list = new ArrayList<>(WORDS);
+            for (int i = 0; i < WORDS; i++) {
+                int length = 4 + random.nextInt(8);
+                StringBuilder sb = new StringBuilder(length);
+                for (int j = 0; j < length; j++) {
+                    sb.append((char)('a' + random.nextInt(26)));
+                }
+                list.add(sb.toString());
+            }
+
+            words = list.toArray(new String[0]);
+            trie = new SequentialTrie(NodeLayout.COMPACT);
+            trie.addAll(list);
+
+            queries = new String[256];
+            for (int i = 0; i < queries.length; i++) { //Known words with one char swapped, a typo
+                char[] chars = words[random.nextInt(WORDS)].toCharArray();
+                chars[random.nextInt(chars.length)] = (char)('a' + random.nextInt(26));
+                queries[i] = new String(chars);
+            }
+        }
+
+        String query() {
+            return queries[ThreadLocalRandom.current().nextInt(queries.length)];
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    public List<String> fuzzy(Dictionary dict) {
+        return dict.trie.fuzzy(dict.query(), dict.maxEdits);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    public List<String> bruteForce(Dictionary dict) {
+        String query = dict.query();
+        List<String> found = new ArrayList<>();
+        for (String w : dict.words) {
+            if (editDistance(query, w) <= dict.maxEdits) found.add(w);
+        }
+        return found;
+    }
+
+    static int editDistance(String a, String b) {
+        int[] prev = new int[b.length() + 1], row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            row[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitute = prev[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                row[j] = Math.min(substitute, Math.min(row[j - 1], prev[j]) + 1);
+            }
+            int[] tmp = prev;
+            prev = row;
+            row = tmp;
+        }
+        return prev[b.length()];
+    }
+}
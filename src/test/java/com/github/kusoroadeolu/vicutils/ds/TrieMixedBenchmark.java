@@ -0,0 +1,59 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+//Read heavy mixed load, lookups of known words with a share of adds and removes, the lock per head trie against the optimistic striped one and the path copying one
+public class TrieMixedBenchmark {
+    private final static int WORDS = 100_000;
+
+    @State(Scope.Benchmark)
+    public static class TrieState {
+        @Param({"striped", "stamped", "synchronized", "persistent"})
+        String impl;
+        @Param({"95", "99"})
+        int readPercent;
+        Trie trie;
+        String[] words;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            List<String> list = new ArrayList<>(WORDS);
+            for (int i = 0; i < WORDS; i++) {
+                int length = 4 + random.nextInt(8);
+                StringBuilder sb = new StringBuilder(length);
+                for (int j = 0; j < length; j++) {
+                    sb.append((char)('a' + random.nextInt(26)));
+                }
+                list.add(sb.toString());
+            }
+
+            words = list.toArray(new String[0]);
+            trie = switch (impl) {
+                case "stamped" -> new StampedTrie(NodeLayout.COMPACT);
+                case "synchronized" -> new SynchronizedTrie(NodeLayout.COMPACT);
+                case "persistent" -> new PersistentTrie();
+                default -> new ConcurrentTrie(NodeLayout.COMPACT);
+            };
+            trie.addAll(list);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    @Threads(8)
+    public boolean mixed(TrieState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String word = state.words[random.nextInt(WORDS)];
+        if (random.nextInt(100) < state.readPercent) return state.trie.containsExact(word);
+        //Writes flip a known word out and back in, so the trie stays the same size
+        return state.trie.remove(word) && state.trie.add(word);
+    }
+}
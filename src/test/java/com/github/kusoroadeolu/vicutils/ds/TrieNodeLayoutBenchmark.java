@@ -0,0 +1,86 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+//Compares HashMap children against the compact sorted array children
+//Run with -prof gc, the gc.alloc.rate.norm of build is roughly the heap each layout retains for the same words
+public class TrieNodeLayoutBenchmark {
+    private final static int WORDS = 200_000;
+
+    @State(Scope.Benchmark)
+    public static class Words {
+        String[] words;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            words = new String[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                int length = 3 + random.nextInt(10);
+                StringBuilder sb = new StringBuilder(length);
+                for (int j = 0; j < length; j++) {
+                    sb.append((char)('a' + random.nextInt(26)));
+                }
+                words[i] = sb.toString();
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LoadedTrie {
+        @Param({"HASHED", "COMPACT"})
+        NodeLayout layout;
+        Trie trie;
+
+        @Setup(Level.Trial)
+        public void setup(Words words) {
+            trie = new SequentialTrie(layout);
+            for (String w : words.words) trie.add(w);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Fork(value = 2)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public Trie build(LoadedTrie state, Words words) {
+        Trie trie = new SequentialTrie(state.layout);
+        for (String w : words.words) trie.add(w);
+        return trie;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    public boolean containsExact(LoadedTrie state, Words words) {
+        return state.trie.containsExact(words.words[ThreadLocalRandom.current().nextInt(WORDS)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    @Threads(8)
+    public boolean concurrentMixed(ConcurrentState state, Words words) {
+        String word = words.words[ThreadLocalRandom.current().nextInt(WORDS)];
+        return ThreadLocalRandom.current().nextInt(10) < 8 ? state.trie.containsExact(word) : state.trie.add(word + "x");
+    }
+
+    @State(Scope.Benchmark)
+    public static class ConcurrentState {
+        @Param({"HASHED", "COMPACT"})
+        NodeLayout layout;
+        Trie trie;
+
+        @Setup(Level.Iteration)
+        public void setup(Words words) {
+            trie = new ConcurrentTrie(layout);
+            for (String w : words.words) trie.add(w);
+        }
+    }
+}
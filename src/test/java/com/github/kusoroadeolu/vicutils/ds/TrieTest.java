@@ -0,0 +1,497 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrieTest {
+
+    private static List<Trie> tries(){
+        return List.of(
+                new SequentialTrie(), new SequentialTrie(NodeLayout.COMPACT),
+                new SynchronizedTrie(), new SynchronizedTrie(NodeLayout.COMPACT),
+                new ConcurrentTrie(), new ConcurrentTrie(NodeLayout.COMPACT),
+                new StampedTrie(), new StampedTrie(NodeLayout.COMPACT, 4),
+                new LockFreeTrie(),
+                new RadixTrie(), new SynchronizedRadixTrie(),
+                new PersistentTrie()
+        );
+    }
+
+    @Test
+    public void onAdd_shouldContainExactWord(){
+        for (Trie trie : tries()){
+            assertTrue(trie.add("Apple"));
+            assertFalse(trie.add("apple"));
+            assertTrue(trie.containsExact("apple"));
+            assertFalse(trie.containsExact("app"));
+            assertFalse(trie.containsExact("apples"));
+            assertEquals(1, trie.size());
+        }
+    }
+
+    @Test
+    public void singleCharWord_shouldOnlyExistOnceAdded(){
+        for (Trie trie : tries()){
+            trie.add("ab");
+            assertFalse(trie.containsExact("a"));
+            assertTrue(trie.add("a"));
+            assertTrue(trie.containsExact("a"));
+            assertTrue(trie.remove("a"));
+            assertTrue(trie.containsExact("ab"));
+        }
+    }
+
+    @Test
+    public void onRemove_shouldKeepOtherWordsOnTheSamePath(){
+        for (Trie trie : tries()){
+            trie.add("car"); trie.add("cart"); trie.add("cat");
+            assertTrue(trie.remove("car"));
+            assertFalse(trie.remove("car"));
+            assertTrue(trie.containsExact("cart"));
+            assertTrue(trie.containsExact("cat"));
+
+            assertTrue(trie.remove("cart"));
+            assertTrue(trie.remove("cat"));
+            assertFalse(trie.containsExact("ca"));
+            assertEquals(0, trie.size());
+        }
+    }
+
+    @Test
+    public void startsWith_shouldReturnEveryWordUnderThePrefix(){
+        for (Trie trie : tries()){
+            trie.add("car"); trie.add("cart"); trie.add("carbon"); trie.add("cat"); trie.add("dog");
+            assertEquals(Set.of("car", "cart", "carbon"), new HashSet<>(trie.startsWith("car")));
+            assertEquals(Set.of("cat"), new HashSet<>(trie.startsWith("cat")));
+            assertTrue(trie.startsWith("cow").isEmpty());
+            assertEquals(2, trie.prefixStream("car").limit(2).count());
+        }
+    }
+
+    @Test
+    public void addAll_shouldOnlyCountNewWords(){
+        for (Trie trie : tries()){
+            trie.add("car");
+            int added = trie.addAll(List.of("cart", "Car", "bat", "b", "carton", "bat", "ca"));
+            assertEquals(5, added);
+            assertEquals(6, trie.size());
+            for (String w : List.of("car", "cart", "carton", "ca", "bat", "b")) assertTrue(trie.containsExact(w));
+            assertFalse(trie.containsExact("cartons"));
+            assertEquals(Set.of("ca", "car", "cart", "carton"), new HashSet<>(trie.startsWith("c")));
+        }
+    }
+
+    @Test
+    public void countWithPrefix_shouldCountEveryWordUnderThePrefix(){
+        for (Trie trie : tries()){
+            trie.addAll(List.of("car", "cart", "carton", "cat", "dog"));
+            trie.add("cab");
+            trie.remove("cart");
+            assertEquals(4, trie.countWithPrefix("ca"));
+            assertEquals(2, trie.countWithPrefix("car"));
+            assertEquals(1, trie.countWithPrefix("cart"));
+            assertEquals(0, trie.countWithPrefix("cow"));
+            assertTrue(trie.containsPrefix("cart"));
+            assertTrue(trie.containsPrefix("do"));
+            assertFalse(trie.containsPrefix("cartons"));
+            assertFalse(trie.containsPrefix("x"));
+            assertEquals(4, trie.freeze().countWithPrefix("ca"));
+
+            trie.remove("carton");
+            assertFalse(trie.containsPrefix("cart")); //Nothing is left under it
+        }
+    }
+
+    @Test
+    public void fuzzy_shouldFindWordsWithinTheEditDistance(){
+        for (Trie t : tries()){
+            if (!(t instanceof SequentialTrie trie)) continue;
+            trie.addAll(List.of("cat", "cart", "cast", "coat", "act", "at", "dog", "c"));
+            assertEquals(Set.of("cat"), new HashSet<>(trie.fuzzy("Cat", 0)));
+            assertEquals(Set.of("cat", "cart", "cast", "coat", "at"), new HashSet<>(trie.fuzzy("cat", 1)));
+            assertEquals(Set.of("cat", "cart", "cast", "coat", "at", "act", "c"), new HashSet<>(trie.fuzzy("cat", 2)));
+            assertTrue(trie.fuzzy("zzzz", 2).isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> trie.fuzzy("cat", -1));
+        }
+    }
+
+    @Test
+    public void keys_shouldBeNormalizedPerCodePoint(){
+        String upper = "\uD801\uDC00bc"; //DESERET CAPITAL LETTER LONG I, a supplementary char with a lower case form
+        String lower = "\uD801\uDC28bc";
+        for (Trie trie : tries()){
+            StringBuilder buffer = new StringBuilder("Word");
+            assertTrue(trie.add(buffer));
+            buffer.setLength(0);
+            assertTrue(trie.containsExact(buffer.append("WORD")));
+            assertTrue(trie.add(upper));
+            assertTrue(trie.containsExact(lower));
+            assertTrue(trie.containsPrefix("\uD801\uDC00"));
+            assertFalse(trie.containsPrefix("\uD801\uDC01")); //A different letter sharing the high surrogate
+            assertEquals(List.of(lower), trie.startsWith(upper));
+            assertEquals(List.of(lower), trie.freeze().startsWith(lower));
+        }
+    }
+
+    @Test
+    public void normalizer_shouldBePluggable(){
+        List<Trie> tries = List.of(
+                new SequentialTrie(NodeLayout.COMPACT, KeyNormalizer.IDENTITY), new ConcurrentTrie(NodeLayout.HASHED, KeyNormalizer.IDENTITY),
+                new StampedTrie(NodeLayout.COMPACT, 4, KeyNormalizer.IDENTITY), new LockFreeTrie(KeyNormalizer.IDENTITY), new RadixTrie(KeyNormalizer.IDENTITY)
+        );
+        for (Trie trie : tries){
+            trie.add("Word");
+            assertTrue(trie.containsExact("Word"));
+            assertFalse(trie.containsExact("word"));
+            assertFalse(trie.freeze().containsExact("word"));
+        }
+
+        Trie folded = new SequentialTrie(NodeLayout.HASHED, KeyNormalizer.CASE_FOLD);
+        folded.add("\u03C3\u03BF\u03C6\u03BF\u03C2"); //Greek word ending in a final sigma
+        assertTrue(folded.containsExact("\u03A3\u039F\u03A6\u039F\u03A3"));
+        assertTrue(folded.containsExact("\u03C3\u03BF\u03C6\u03BF\u03C3"));
+    }
+
+    @Test
+    public void freeze_shouldAnswerLikeTheTrieItWasFrozenFrom(){
+        for (Trie trie : tries()){
+            trie.addAll(List.of("car", "cart", "carton", "cat", "b", "dog"));
+            trie.remove("cart");
+            Trie frozen = trie.freeze();
+            trie.add("cow"); //Later writes don't reach the frozen trie
+
+            assertEquals(5, frozen.size());
+            assertTrue(frozen.containsExact("carton"));
+            assertTrue(frozen.containsExact("b"));
+            assertFalse(frozen.containsExact("cart"));
+            assertFalse(frozen.containsExact("cow"));
+            assertTrue(frozen.containsPrefix("cart"));
+            assertFalse(frozen.containsPrefix("cartons"));
+            assertEquals(List.of("car", "carton", "cat"), frozen.startsWith("ca"));
+            assertSame(frozen, frozen.freeze());
+            assertThrows(UnsupportedOperationException.class, () -> frozen.add("cow"));
+        }
+    }
+
+    @Test
+    public void mappedTrie_shouldReadBackWhatWasWritten() throws IOException {
+        Path dir = Files.createTempDirectory("trie");
+        Path file = dir.resolve("words.trie");
+        try {
+            Trie trie = new SequentialTrie();
+            trie.addAll(List.of("car", "cart", "carton", "cat", "b", "dog"));
+            MappedTrie.write(trie, file);
+            trie.add("cow");
+            MappedTrie.write(trie, file); //Replaces the file whole
+
+            try (MappedTrie mapped = MappedTrie.open(file)){
+                assertEquals(7, mapped.size());
+                assertTrue(mapped.containsExact("cow"));
+                assertTrue(mapped.containsExact("b"));
+                assertFalse(mapped.containsExact("ca"));
+                assertTrue(mapped.containsPrefix("ca"));
+                assertEquals(List.of("car", "cart", "carton", "cat"), mapped.startsWith("ca"));
+                assertThrows(UnsupportedOperationException.class, () -> mapped.add("cow"));
+            }
+
+            Trie exact = new SequentialTrie(NodeLayout.COMPACT, KeyNormalizer.IDENTITY);
+            exact.add("Cow");
+            MappedTrie.write(exact, file);
+            try (MappedTrie mapped = MappedTrie.open(file)){
+                assertTrue(mapped.containsExact("Cow")); //Opened with the identity normalizer it was written with
+                assertFalse(mapped.containsExact("cow"));
+            }
+
+            MappedTrie.write(new SequentialTrie(NodeLayout.COMPACT, cp -> cp), file);
+            assertThrows(IOException.class, () -> MappedTrie.open(file));
+
+            Files.write(file, new byte[]{1, 2, 3});
+            assertThrows(IOException.class, () -> MappedTrie.open(file));
+        }finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void mappedTrie_onCorruptOffsets_shouldFailOpen_andAFailedWriteShouldLeaveNoTempFile() throws IOException {
+        Path dir = Files.createTempDirectory("trie");
+        Path file = dir.resolve("words.trie");
+        Path taken = dir.resolve("taken.trie");
+        Path child = taken.resolve("child");
+        try {
+            Trie trie = new SequentialTrie();
+            trie.addAll(List.of("car", "cat", "dog"));
+            MappedTrie.write(trie, file);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)){
+                channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 1_000), 24); //The first head's child offset, past every node
+            }
+            assertThrows(IOException.class, () -> MappedTrie.open(file));
+
+            Files.createDirectories(child); //A non empty directory in the way, so the move fails
+            assertThrows(IOException.class, () -> MappedTrie.write(trie, taken));
+            assertFalse(Files.exists(dir.resolve("taken.trie.tmp")));
+        }finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(child);
+            Files.deleteIfExists(taken);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void stampedTrie_readsRacingWriters_shouldNeverMissStableWords() throws Exception {
+        StampedTrie trie = new StampedTrie(NodeLayout.COMPACT, 2); //Few stripes, so readers and writers collide often
+        List<String> stable = new ArrayList<>();
+        for (int i = 0; i < 500; i++) stable.add("stable" + i);
+        trie.addAll(stable);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)){
+            List<CompletableFuture<Void>> writers = new ArrayList<>();
+            for (int t = 0; t < 2; t++){
+                int id = t;
+                writers.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 2_000; i++){
+                        String w = "st" + id + "_" + i; //Shares the stable words' head and first chars
+                        trie.add(w);
+                        trie.remove(w);
+                    }
+                }, executor));
+            }
+
+            CompletableFuture<Boolean> reader = CompletableFuture.supplyAsync(() -> {
+                boolean allFound = true;
+                while (!CompletableFuture.allOf(writers.toArray(new CompletableFuture<?>[0])).isDone()){
+                    for (String w : stable) allFound &= trie.containsExact(w);
+                    allFound &= trie.startsWith("stable1").size() == 111;
+                }
+                return allFound;
+            }, executor);
+
+            assertTrue(reader.get());
+        }
+
+        assertEquals(500, trie.size());
+    }
+
+    @Test
+    public void weaklyConsistentIterator_shouldNotBlockWriters(){
+        ConcurrentTrie trie = new ConcurrentTrie(NodeLayout.COMPACT);
+        for (int i = 0; i < 100; i++) trie.add("word" + i);
+
+        Iterator<String> it = trie.prefixIterator("word", true);
+        assertTrue(it.hasNext());
+        assertTrue(trie.add("wordy")); //Would deadlock on the head's write lock if the walk held the read lock
+        int seen = 0;
+        while (it.hasNext()) {
+            it.next();
+            ++seen;
+        }
+        assertTrue(seen >= 100);
+    }
+
+    @Test
+    public void topK_shouldReturnTheHeaviestWordsFirst(){
+        for (SequentialTrie trie : List.of(new SequentialTrie(), new SynchronizedTrie(NodeLayout.COMPACT), new ConcurrentTrie())){
+            trie.add("to", 50); trie.add("tea", 10); trie.add("ted", 40); trie.add("ten", 30); trie.add("inn", 90);
+            trie.add("tent");
+            assertEquals(List.of("to", "ted", "ten"), trie.topK("t", 3));
+            assertEquals(List.of("ted", "ten", "tea", "tent"), trie.topK("te", 10));
+
+            assertFalse(trie.add("to", 5)); //Reweighs instead of adding
+            assertFalse(trie.add("tea")); //Plain adds never touch an existing weight
+            trie.remove("ted");
+            assertEquals(List.of("ten", "tea"), trie.topK("t", 2));
+            assertEquals(30, trie.heads.get('t').maxWeight());
+        }
+    }
+
+    @Test
+    public void radixTrie_shouldSplitAndMergeEdges(){
+        RadixTrie trie = new RadixTrie();
+        trie.add("/api/users/list");
+        assertEquals(1, trie.nodeCount());
+        trie.add("/api/users/get");
+        trie.add("/api/orders");
+        assertEquals(5, trie.nodeCount()); // "/api/" -> "users/" -> ("list", "get") and "orders"
+        assertTrue(trie.containsPrefix("/api/us"));
+        assertFalse(trie.containsExact("/api/users"));
+
+        trie.remove("/api/orders"); //"/api/" and "users/" fold back into one edge
+        assertEquals(3, trie.nodeCount());
+        assertEquals(List.of("/api/users/get", "/api/users/list"), trie.startsWith("/api/users/"));
+    }
+
+    @Test
+    public void compactNodeMap_shouldKeepKeysSorted(){
+        CompactNodeMap map = new CompactNodeMap();
+        for (char c : "zmaqb".toCharArray()) map.put(c, new Trie.Node(c, new CompactNodeMap(), false));
+        map.remove('q');
+
+        StringBuilder sb = new StringBuilder();
+        for (Trie.Node n : map.values()) sb.append(n.c());
+        assertEquals("abmz", sb.toString());
+        assertEquals('m', map.get('m').c());
+        assertNull(map.get('q'));
+    }
+
+    @Test
+    public void lockFreeSnapshot_shouldNotSeeLaterWrites(){
+        LockFreeTrie trie = new LockFreeTrie();
+        trie.add("tea"); trie.add("ten");
+        LockFreeTrie snapshot = trie.snapshot();
+        LockFreeTrie readOnly = trie.readOnlySnapshot();
+
+        trie.add("team");
+        trie.remove("ten");
+        snapshot.add("tent");
+
+        assertTrue(snapshot.containsExact("ten"));
+        assertFalse(snapshot.containsExact("team"));
+        assertTrue(snapshot.containsExact("tent"));
+        assertFalse(trie.containsExact("tent"));
+        assertEquals(List.of("tea", "ten"), readOnly.startsWith("te"));
+        assertThrows(UnsupportedOperationException.class, () -> readOnly.add("to"));
+    }
+
+    @Test
+    public void lockFree_concurrentAddsAndRemoves_shouldNotLoseWords(){
+        LockFreeTrie trie = new LockFreeTrie();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        try (ExecutorService exec = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++){
+                final int id = t;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 2000; i++){
+                        String word = "ab" + (char)('a' + id) + i;
+                        trie.add(word);
+                        if (i % 2 == 0) trie.remove(word);
+                        if (i % 500 == 0) trie.snapshot();
+                    }
+                }, exec));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        }
+
+        assertEquals(8000, trie.size());
+        assertEquals(8000, trie.startsWith("ab").size());
+        assertTrue(trie.containsExact("abc1"));
+        assertFalse(trie.containsExact("abc2"));
+    }
+
+    @Test
+    public void trieMap_shouldAttachValuesToKeys(){
+        for (TrieMap<Integer> map : List.<TrieMap<Integer>>of(new SequentialTrieMap<>(), new SynchronizedTrieMap<>(NodeLayout.COMPACT), new ConcurrentTrieMap<>())){
+            assertNull(map.put("Tea", 1));
+            assertNull(map.put("ten", 2));
+            assertEquals(2, map.put("TEN", 3));
+            assertEquals(1, map.get("tea"));
+            assertNull(map.get("te"));
+            assertFalse(map.containsKey("te"));
+
+            assertEquals(4, map.computeIfAbsent("team", String::length));
+            assertEquals(4, map.computeIfAbsent("team", _ -> 99));
+            assertNull(map.computeIfAbsent("to", _ -> null));
+            assertFalse(map.containsKey("to"));
+            assertEquals(3, map.size());
+
+            assertEquals(List.of(Map.entry("tea", 1), Map.entry("team", 4)), map.entries("tea").stream().sorted(Map.Entry.comparingByKey()).toList());
+            assertEquals(3, map.entries("t").size());
+
+            assertEquals(1, map.remove("tea"));
+            assertNull(map.remove("tea"));
+            assertEquals(4, map.get("team"));
+            assertEquals(2, map.size());
+            assertThrows(NullPointerException.class, () -> map.put("x", null));
+        }
+    }
+
+    @Test
+    public void stats_shouldDescribeTheTriesShape(){
+        for (SequentialTrie trie : List.of(new SequentialTrie(), new SynchronizedTrie(), new ConcurrentTrie(), new StampedTrie(NodeLayout.COMPACT, 4))){
+            trie.addAll(List.of("tea", "team", "ten", "a"));
+            TrieStats stats = trie.stats();
+            assertEquals(6, stats.nodes()); //a, t, e, a, m, n
+            assertEquals(4, stats.maxDepth());
+            assertEquals(Map.of('a', 1, 't', 3), stats.wordsPerHead());
+            assertEquals(4, trie.size());
+        }
+
+        ConcurrentTrie trie = new ConcurrentTrie();
+        trie.add("tea");
+        assertEquals(Set.of('t'), trie.stats().lockWaitNanos().keySet());
+    }
+
+    @Test
+    public void copy_shouldNotShareWritesWithTheOriginal(){
+        for (Trie trie : tries()){
+            trie.addAll(List.of("tea", "ten"));
+            Trie copy = trie.copy();
+            assertEquals(trie.getClass(), copy.getClass());
+            trie.add("team");
+            trie.remove("ten");
+            copy.add("to");
+
+            assertEquals(List.of("tea", "ten", "to"), copy.startsWith("t").stream().sorted().toList());
+            assertEquals(List.of("tea", "team"), trie.startsWith("t").stream().sorted().toList());
+            assertEquals(3, copy.size());
+            assertEquals(2, copy.countWithPrefix("te"));
+        }
+    }
+
+    @Test
+    public void persistent_snapshotsShouldStayConsistentDuringWrites(){
+        PersistentTrie trie = new PersistentTrie();
+        trie.addAll(List.of("tea", "ten"));
+        PersistentTrie snapshot = trie.snapshot();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        try (ExecutorService exec = Executors.newFixedThreadPool(4)) {
+            for (int t = 0; t < 4; t++){
+                final int id = t;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 500; i++){
+                        trie.add("te" + (char)('a' + id) + i);
+                        PersistentTrie view = trie.snapshot();
+                        assertEquals(view.size(), view.startsWith("t").size());
+                    }
+                }, exec));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        }
+
+        assertEquals(2002, trie.size());
+        assertEquals(2002, trie.countWithPrefix("te"));
+        assertEquals(List.of("tea", "ten"), snapshot.startsWith("t"));
+        assertTrue(trie.remove("tea"));
+        assertFalse(trie.containsExact("tea"));
+        assertTrue(trie.containsPrefix("tea1"));
+    }
+
+    @Test
+    public void parallelStartsWith_shouldMatchStartsWith(){
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) words.add("a" + Integer.toString(i, 7)); //Enough under "a" to split a few levels down
+        words.add("b");
+
+        for (SequentialTrie trie : List.of(new SequentialTrie(), new SynchronizedTrie(NodeLayout.COMPACT), new ConcurrentTrie(), new StampedTrie())){
+            trie.addAll(words);
+            assertEquals(trie.startsWith("a"), trie.parallelStartsWith("A"));
+            assertEquals(List.of("a6", "a60", "a61", "a62", "a63", "a64", "a65", "a66"), trie.parallelStartsWith("a6").stream().filter(w -> w.length() <= 3).sorted().toList());
+            assertEquals(List.of("b"), trie.parallelStartsWith("b"));
+            assertTrue(trie.parallelStartsWith("c").isEmpty());
+        }
+    }
+}
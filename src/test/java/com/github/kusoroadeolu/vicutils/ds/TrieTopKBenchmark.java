@@ -0,0 +1,70 @@
+package com.github.kusoroadeolu.vicutils.ds;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+//Type ahead, the 10 best completions of a short prefix, best first search against collecting every completion and sorting them
+public class TrieTopKBenchmark {
+    private final static int WORDS = 500_000;
+    private final static int K = 10;
+
+    @State(Scope.Benchmark)
+    public static class WeightedTrie {
+        @Param({"1", "2", "3"})
+        int prefixLength;
+        SequentialTrie trie;
+        Map<String, Integer> weights; //What callers keep beside the trie today to sort completions
+        String[] prefixes;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            trie = new SequentialTrie();
+            weights = new HashMap<>();
+            for (int i = 0; i < WORDS; i++) {
+                int length = 4 + random.nextInt(8);
+                StringBuilder sb = new StringBuilder(length);
+                for (int j = 0; j < length; j++) {
+                    sb.append((char)('a' + random.nextInt(26)));
+                }
+                int weight = (int) (1_000_000 / (1 + random.nextInt(10_000))); //Zipf-ish, a few very popular words
+                String word = sb.toString();
+                trie.add(word, weight);
+                weights.put(word, weight);
+            }
+
+            prefixes = new String[256];
+            for (int i = 0; i < prefixes.length; i++) {
+                StringBuilder sb = new StringBuilder(prefixLength);
+                for (int j = 0; j < prefixLength; j++) {
+                    sb.append((char)('a' + random.nextInt(26)));
+                }
+                prefixes[i] = sb.toString();
+            }
+        }
+
+        String prefix() {
+            return prefixes[ThreadLocalRandom.current().nextInt(prefixes.length)];
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    public List<String> topK(WeightedTrie state) {
+        return state.trie.topK(state.prefix(), K);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Fork(value = 2)
+    @Measurement(iterations = 5)
+    public List<String> startsWithAndSort(WeightedTrie state) {
+        List<String> words = state.trie.startsWith(state.prefix());
+        words.sort(Comparator.comparing(state.weights::get, Comparator.reverseOrder()));
+        return words.subList(0, Math.min(K, words.size()));
+    }
+}